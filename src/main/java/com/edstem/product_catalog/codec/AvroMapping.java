@@ -0,0 +1,110 @@
+package com.edstem.product_catalog.codec;
+
+import com.edstem.product_catalog.contract.ProductDTO;
+import com.edstem.product_catalog.event.ProductViewEvent;
+import com.edstem.product_catalog.model.Product;
+import org.apache.avro.Conversions;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Hand-written mapping between a catalog type and the generic Avro record of its schema subject.
+ * Fields are copied by name, so no reflection or generated classes are involved, and a reader
+ * schema that gained or lost fields only needs this mapping updated.
+ */
+public record AvroMapping<T>(String subject, Class<T> type,
+                             BiFunction<T, Schema, GenericRecord> writer,
+                             Function<GenericRecord, T> reader) {
+
+    /** Generic data model with the logical type conversions the catalog schemas use. */
+    public static final GenericData MODEL = new GenericData();
+
+    static {
+        MODEL.addLogicalTypeConversion(new Conversions.DecimalConversion());
+        MODEL.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+        MODEL.addLogicalTypeConversion(new TimeConversions.TimestampMicrosConversion());
+    }
+
+    public static final AvroMapping<Product> PRODUCT = new AvroMapping<>("product", Product.class,
+            (product, schema) -> {
+                GenericData.Record record = new GenericData.Record(schema);
+                record.put("id", product.getId());
+                record.put("name", product.getName());
+                record.put("description", product.getDescription());
+                record.put("category", product.getCategory());
+                record.put("price", price(product.getPrice()));
+                record.put("stock", product.getStock());
+                record.put("viewCount", product.getViewCount());
+                record.put("createdAt", product.getCreatedAt());
+                record.put("updatedAt", product.getUpdatedAt());
+                return record;
+            },
+            record -> Product.builder()
+                    .id((Long) record.get("id"))
+                    .name(string(record.get("name")))
+                    .description(string(record.get("description")))
+                    .category(string(record.get("category")))
+                    .price((BigDecimal) record.get("price"))
+                    .stock((Integer) record.get("stock"))
+                    .viewCount((Long) record.get("viewCount"))
+                    .createdAt((Instant) record.get("createdAt"))
+                    .updatedAt((Instant) record.get("updatedAt"))
+                    .build());
+
+    public static final AvroMapping<ProductDTO> PRODUCT_DTO = new AvroMapping<>("product-dto", ProductDTO.class,
+            (product, schema) -> {
+                GenericData.Record record = new GenericData.Record(schema);
+                record.put("name", product.getName());
+                record.put("description", product.getDescription());
+                record.put("category", product.getCategory());
+                record.put("price", price(product.getPrice()));
+                record.put("stock", product.getStock());
+                return record;
+            },
+            record -> ProductDTO.builder()
+                    .name(string(record.get("name")))
+                    .description(string(record.get("description")))
+                    .category(string(record.get("category")))
+                    .price((BigDecimal) record.get("price"))
+                    .stock((Integer) record.get("stock"))
+                    .build());
+
+    public static final AvroMapping<ProductViewEvent> PRODUCT_VIEW_EVENT = new AvroMapping<>("product-view-event",
+            ProductViewEvent.class,
+            (event, schema) -> {
+                GenericData.Record record = new GenericData.Record(schema);
+                record.put("productId", event.getProductId());
+                record.put("userId", event.getUserId());
+                record.put("viewedAt", event.getViewedAt());
+                record.put("source", event.getSource());
+                return record;
+            },
+            record -> ProductViewEvent.builder()
+                    .productId((Long) record.get("productId"))
+                    .userId(string(record.get("userId")))
+                    .viewedAt((LocalDateTime) record.get("viewedAt"))
+                    .source(string(record.get("source")))
+                    .build());
+
+    public static final List<AvroMapping<?>> CATALOG = List.of(PRODUCT, PRODUCT_DTO, PRODUCT_VIEW_EVENT);
+
+    /** Avro decimals have a fixed scale; prices are numeric(38,2) in the products table as well. */
+    private static BigDecimal price(BigDecimal price) {
+        return price == null ? null : price.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    /** Avro strings decode as {@code Utf8}. */
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
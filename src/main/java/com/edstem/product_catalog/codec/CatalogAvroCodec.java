@@ -0,0 +1,114 @@
+package com.edstem.product_catalog.codec;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Avro single-object encoding for the {@link AvroMapping mapped} catalog types: a two byte
+ * marker, the writer schema's fingerprint and the Avro binary body. Values are always written
+ * with the latest schema version of their subject and read into it, resolving whatever version
+ * the writer used through the {@link FileSchemaRegistry}.
+ * <p>
+ * Encoders and decoders are built once per type and are thread-safe.
+ */
+public class CatalogAvroCodec {
+
+    private static final byte MARKER_0 = (byte) 0xC3;
+    private static final byte MARKER_1 = 0x01;
+    private static final int HEADER_LENGTH = 2 + Long.BYTES;
+
+    private record Encoding<T>(AvroMapping<T> mapping, FileSchemaRegistry.SchemaVersion writer,
+                               BinaryMessageEncoder<GenericRecord> encoder) {
+
+        byte[] encode(Object value) throws IOException {
+            GenericRecord record = mapping.writer().apply(mapping.type().cast(value), writer.schema());
+            ByteBuffer buffer = encoder.encode(record);
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                    && buffer.remaining() == buffer.array().length) {
+                return buffer.array();
+            }
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    private record Decoding(AvroMapping<?> mapping, BinaryMessageDecoder<GenericRecord> decoder) {
+
+        Object decode(byte[] data) throws IOException {
+            return mapping.reader().apply(decoder.decode(data));
+        }
+    }
+
+    private final FileSchemaRegistry registry;
+    private final Map<Class<?>, Encoding<?>> encodings;
+    private final Map<String, Decoding> decodings;
+
+    public CatalogAvroCodec(FileSchemaRegistry registry, List<AvroMapping<?>> mappings) {
+        this.registry = registry;
+        Map<Class<?>, Encoding<?>> encodings = new HashMap<>();
+        Map<String, Decoding> decodings = new HashMap<>();
+        for (AvroMapping<?> mapping : mappings) {
+            FileSchemaRegistry.SchemaVersion latest = registry.latest(mapping.subject());
+            encodings.put(mapping.type(), new Encoding<>(mapping, latest,
+                    new BinaryMessageEncoder<>(AvroMapping.MODEL, latest.schema())));
+            decodings.put(mapping.subject(), new Decoding(mapping,
+                    new BinaryMessageDecoder<>(AvroMapping.MODEL, latest.schema(), registry)));
+        }
+        this.encodings = Map.copyOf(encodings);
+        this.decodings = Map.copyOf(decodings);
+    }
+
+    /** Codec for all catalog types, with schemas from {@link FileSchemaRegistry#LOCATIONS_CONFIG}. */
+    public static CatalogAvroCodec configure(Map<String, ?> configs) {
+        Object locations = configs.get(FileSchemaRegistry.LOCATIONS_CONFIG);
+        return new CatalogAvroCodec(
+                FileSchemaRegistry.load(locations == null ? FileSchemaRegistry.DEFAULT_LOCATIONS : locations.toString()),
+                AvroMapping.CATALOG);
+    }
+
+    public boolean supports(Object value) {
+        return encodings.containsKey(value.getClass());
+    }
+
+    public byte[] encode(Object value) {
+        Encoding<?> encoding = encodings.get(value.getClass());
+        if (encoding == null) {
+            throw new SerializationException("No Avro mapping for " + value.getClass().getName());
+        }
+        try {
+            return encoding.encode(value);
+        } catch (IOException | AvroRuntimeException e) {
+            throw new SerializationException("Could not write " + value.getClass().getSimpleName() + " as Avro", e);
+        }
+    }
+
+    public static boolean isAvro(byte[] data) {
+        return data.length >= HEADER_LENGTH && data[0] == MARKER_0 && data[1] == MARKER_1;
+    }
+
+    public Object decode(byte[] data) {
+        long fingerprint = ByteBuffer.wrap(data, 2, Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        FileSchemaRegistry.SchemaVersion writer = registry.byFingerprint(fingerprint);
+        Decoding decoding = writer == null ? null : decodings.get(writer.subject());
+        if (decoding == null) {
+            throw new SerializationException("No catalog schema with fingerprint "
+                    + Long.toHexString(fingerprint) + " for subjects " + decodings.keySet());
+        }
+        try {
+            return decoding.decode(data);
+        } catch (IOException | AvroRuntimeException e) {
+            throw new SerializationException("Could not read " + writer.subject() + " v" + writer.version() + " record", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.edstem.product_catalog.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for records written by {@link CatalogAvroSerializer}. The type comes
+ * from the writer schema on the wire rather than from type headers or trusted packages, and
+ * must be a {@code type}. Records without the Avro marker, i.e. written before the switch, are
+ * handed to the fallback deserializer, so the format can change without draining topics.
+ */
+public class CatalogAvroDeserializer<T> implements Deserializer<T> {
+
+    private final Class<T> type;
+    private final Deserializer<? extends T> fallback;
+    private CatalogAvroCodec codec;
+
+    public CatalogAvroDeserializer(Class<T> type, Deserializer<? extends T> fallback) {
+        this.type = type;
+        this.fallback = fallback;
+    }
+
+    public CatalogAvroDeserializer(Class<T> type, Deserializer<? extends T> fallback, CatalogAvroCodec codec) {
+        this(type, fallback);
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        fallback.configure(configs, isKey);
+        if (codec == null) {
+            codec = CatalogAvroCodec.configure(configs);
+        }
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!CatalogAvroCodec.isAvro(data)) {
+            return headers == null ? fallback.deserialize(topic, data) : fallback.deserialize(topic, headers, data);
+        }
+        Object value = codec().decode(data);
+        if (!type.isInstance(value)) {
+            throw new SerializationException("Expected " + type.getSimpleName() + " on " + topic
+                    + " but the record holds " + value.getClass().getSimpleName());
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public void close() {
+        fallback.close();
+    }
+
+    private CatalogAvroCodec codec() {
+        if (codec == null) {
+            codec = CatalogAvroCodec.configure(Map.of());
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,64 @@
+package com.edstem.product_catalog.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer writing catalog types with {@link CatalogAvroCodec}. Raw bytes pass
+ * through unchanged, so dead-lettering an unreadable record republishes it as it was, and any
+ * other type falls back to JSON with type headers.
+ */
+public class CatalogAvroSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private CatalogAvroCodec codec;
+
+    public CatalogAvroSerializer() {
+    }
+
+    public CatalogAvroSerializer(CatalogAvroCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        if (codec == null) {
+            codec = CatalogAvroCodec.configure(configs);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (codec().supports(data)) {
+            return codec.encode(data);
+        }
+        return headers == null ? jsonSerializer.serialize(topic, data) : jsonSerializer.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+
+    private CatalogAvroCodec codec() {
+        if (codec == null) {
+            codec = CatalogAvroCodec.configure(Map.of());
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,110 @@
+package com.edstem.product_catalog.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for a schema registry: Avro schemas are read from files named
+ * {@code <subject>.v<version>.avsc} and identified on the wire by their 64-bit parsing
+ * fingerprint, as in Avro single-object encoding. Old versions stay in the directory so records
+ * written with them can still be resolved against the latest version of their subject.
+ * <p>
+ * Registries are cached per location, so every serializer and deserializer instance in the
+ * process shares one set of parsed schemas.
+ */
+@Slf4j
+public class FileSchemaRegistry implements SchemaStore {
+
+    public static final String LOCATIONS_CONFIG = "catalog.avro.schema-locations";
+    public static final String DEFAULT_LOCATIONS = "classpath*:avro/*.avsc";
+
+    private static final Pattern FILE_NAME = Pattern.compile("(.+)\\.v(\\d+)\\.avsc");
+    private static final Map<String, FileSchemaRegistry> LOADED = new ConcurrentHashMap<>();
+
+    public record SchemaVersion(String subject, int version, Schema schema, long fingerprint) {
+    }
+
+    private final Map<String, NavigableMap<Integer, SchemaVersion>> subjects = new ConcurrentHashMap<>();
+    private final Map<Long, SchemaVersion> byFingerprint = new ConcurrentHashMap<>();
+
+    FileSchemaRegistry() {
+    }
+
+    /**
+     * @param locations comma-separated resource patterns, e.g. {@code classpath*:avro/*.avsc} or
+     *                  {@code file:/etc/product-catalog/schemas/*.avsc}
+     */
+    public static FileSchemaRegistry load(String locations) {
+        return LOADED.computeIfAbsent(locations, FileSchemaRegistry::scan);
+    }
+
+    private static FileSchemaRegistry scan(String locations) {
+        FileSchemaRegistry registry = new FileSchemaRegistry();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        try {
+            for (String location : locations.split(",")) {
+                for (Resource resource : resolver.getResources(location.strip())) {
+                    Matcher name = FILE_NAME.matcher(String.valueOf(resource.getFilename()));
+                    if (!name.matches()) {
+                        log.warn("Ignoring schema file {}: expected <subject>.v<version>.avsc", resource);
+                        continue;
+                    }
+                    try (InputStream in = resource.getInputStream()) {
+                        registry.register(name.group(1), Integer.parseInt(name.group(2)), new Schema.Parser().parse(in));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load Avro schemas from " + locations, e);
+        }
+        if (registry.subjects.isEmpty()) {
+            throw new IllegalStateException("No Avro schemas found at " + locations);
+        }
+        log.info("Loaded Avro schemas from {}: {}", locations, registry.subjects.keySet());
+        return registry;
+    }
+
+    SchemaVersion register(String subject, int version, Schema schema) {
+        SchemaVersion registered = new SchemaVersion(subject, version, schema,
+                SchemaNormalization.parsingFingerprint64(schema));
+        SchemaVersion clash = byFingerprint.putIfAbsent(registered.fingerprint(), registered);
+        if (clash != null && !clash.subject().equals(subject)) {
+            throw new IllegalStateException("Schema " + subject + " v" + version
+                    + " is identical to " + clash.subject() + " v" + clash.version());
+        }
+        subjects.computeIfAbsent(subject, key -> new TreeMap<>()).put(version, registered);
+        return registered;
+    }
+
+    public SchemaVersion latest(String subject) {
+        NavigableMap<Integer, SchemaVersion> versions = subjects.get(subject);
+        if (versions == null) {
+            throw new IllegalArgumentException("No Avro schema registered for subject " + subject);
+        }
+        return versions.lastEntry().getValue();
+    }
+
+    public SchemaVersion byFingerprint(long fingerprint) {
+        return byFingerprint.get(fingerprint);
+    }
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        SchemaVersion version = byFingerprint.get(fingerprint);
+        return version == null ? null : version.schema();
+    }
+}
@@ -0,0 +1,167 @@
+package com.edstem.product_catalog.codec;
+
+import com.edstem.product_catalog.contract.ProductPage;
+import com.edstem.product_catalog.model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed field-order binary layout for catalog values. Field order is the schema:
+ * any change to it must come with a new {@link #SCHEMA_VERSION}.
+ */
+public final class ProductBinaryCodec {
+
+    public static final byte SCHEMA_VERSION = 3;
+
+    private ProductBinaryCodec() {
+    }
+
+    public static void writeProduct(DataOutput out, Product product) throws IOException {
+        writeLong(out, product.getId());
+        writeString(out, product.getName());
+        writeString(out, product.getDescription());
+        writeString(out, product.getCategory());
+        writeDecimal(out, product.getPrice());
+        writeInt(out, product.getStock());
+        writeLong(out, product.getViewCount());
+        writeInstant(out, product.getCreatedAt());
+        writeInstant(out, product.getUpdatedAt());
+    }
+
+    public static Product readProduct(DataInput in) throws IOException {
+        return Product.builder()
+                .id(readLong(in))
+                .name(readString(in))
+                .description(readString(in))
+                .category(readString(in))
+                .price(readDecimal(in))
+                .stock(readInt(in))
+                .viewCount(readLong(in))
+                .createdAt(readInstant(in))
+                .updatedAt(readInstant(in))
+                .build();
+    }
+
+    public static void writeProducts(DataOutput out, List<?> products) throws IOException {
+        out.writeInt(products.size());
+        for (Object product : products) {
+            writeProduct(out, (Product) product);
+        }
+    }
+
+    public static List<Product> readProducts(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(readProduct(in));
+        }
+        return products;
+    }
+
+    public static void writeProductPage(DataOutput out, ProductPage page) throws IOException {
+        writeProducts(out, page.getItems());
+        writeString(out, page.getNextCursor());
+    }
+
+    public static ProductPage readProductPage(DataInput in) throws IOException {
+        return ProductPage.builder()
+                .items(readProducts(in))
+                .nextCursor(readString(in))
+                .build();
+    }
+
+    public static boolean isProductList(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof Product)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(value.scale());
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int length = in.readByte();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readInt());
+    }
+}
@@ -0,0 +1,153 @@
+package com.edstem.product_catalog.codec;
+
+import com.edstem.product_catalog.contract.ProductPage;
+import com.edstem.product_catalog.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Redis value serializer that writes catalog types in {@link ProductBinaryCodec} format behind a
+ * magic/version header and everything else as JSON. Reads accept both, so switching the write
+ * format never requires flushing Redis.
+ */
+@Slf4j
+public class VersionedRedisSerializer implements RedisSerializer<Object> {
+
+    public enum Format { JSON, BINARY }
+
+    static final byte MAGIC = (byte) 0xCB;
+
+    private static final int HEADER_LENGTH = 4;
+    private static final byte FLAG_LZ4 = 0x01;
+
+    private static final byte TYPE_PRODUCT = 1;
+    private static final byte TYPE_PRODUCT_LIST = 2;
+    private static final byte TYPE_PRODUCT_PAGE = 3;
+
+    private final RedisSerializer<Object> jsonSerializer;
+    private final Format format;
+    private final boolean compress;
+    private final int compressionThreshold;
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    public VersionedRedisSerializer(RedisSerializer<Object> jsonSerializer, Format format,
+                                    boolean compress, int compressionThreshold) {
+        this.jsonSerializer = jsonSerializer;
+        this.format = format;
+        this.compress = compress;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte type = typeOf(value);
+        if (format == Format.JSON || type == 0) {
+            return jsonSerializer.serialize(value);
+        }
+
+        byte[] payload;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(buffer);
+            switch (type) {
+                case TYPE_PRODUCT -> ProductBinaryCodec.writeProduct(out, (Product) value);
+                case TYPE_PRODUCT_LIST -> ProductBinaryCodec.writeProducts(out, (List<?>) value);
+                default -> ProductBinaryCodec.writeProductPage(out, (ProductPage) value);
+            }
+            payload = buffer.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write binary cache value", e);
+        }
+
+        if (compress && payload.length >= compressionThreshold) {
+            return compressed(type, payload);
+        }
+        byte[] framed = new byte[HEADER_LENGTH + payload.length];
+        writeHeader(framed, type, (byte) 0);
+        System.arraycopy(payload, 0, framed, HEADER_LENGTH, payload.length);
+        return framed;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || bytes[1] != ProductBinaryCodec.SCHEMA_VERSION) {
+            log.debug("Ignoring cache value with unsupported schema version {}", bytes.length > 1 ? bytes[1] : -1);
+            return null;
+        }
+
+        byte flags = bytes[2];
+        byte type = bytes[3];
+        DataInputStream in;
+        if ((flags & FLAG_LZ4) != 0) {
+            int rawLength = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+            byte[] raw = new byte[rawLength];
+            decompressor.decompress(bytes, HEADER_LENGTH + Integer.BYTES, raw, 0, rawLength);
+            in = new DataInputStream(new ByteArrayInputStream(raw));
+        } else {
+            in = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH));
+        }
+
+        try {
+            return switch (type) {
+                case TYPE_PRODUCT -> ProductBinaryCodec.readProduct(in);
+                case TYPE_PRODUCT_LIST -> ProductBinaryCodec.readProducts(in);
+                case TYPE_PRODUCT_PAGE -> ProductBinaryCodec.readProductPage(in);
+                default -> null;
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not read binary cache value", e);
+        }
+    }
+
+    private byte[] compressed(byte type, byte[] payload) {
+        int maxLength = compressor.maxCompressedLength(payload.length);
+        byte[] framed = new byte[HEADER_LENGTH + Integer.BYTES + maxLength];
+        writeHeader(framed, type, FLAG_LZ4);
+        ByteBuffer.wrap(framed, HEADER_LENGTH, Integer.BYTES).putInt(payload.length);
+        int compressedLength = compressor.compress(payload, 0, payload.length,
+                framed, HEADER_LENGTH + Integer.BYTES, maxLength);
+        return Arrays.copyOf(framed, HEADER_LENGTH + Integer.BYTES + compressedLength);
+    }
+
+    private static void writeHeader(byte[] framed, byte type, byte flags) {
+        framed[0] = MAGIC;
+        framed[1] = ProductBinaryCodec.SCHEMA_VERSION;
+        framed[2] = flags;
+        framed[3] = type;
+    }
+
+    private static byte typeOf(Object value) {
+        if (value instanceof Product) {
+            return TYPE_PRODUCT;
+        }
+        if (value instanceof ProductPage page && page.getItems() != null
+                && ProductBinaryCodec.isProductList(page.getItems())) {
+            return TYPE_PRODUCT_PAGE;
+        }
+        if (ProductBinaryCodec.isProductList(value)) {
+            return TYPE_PRODUCT_LIST;
+        }
+        return 0;
+    }
+}
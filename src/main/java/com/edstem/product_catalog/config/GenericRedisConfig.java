@@ -1,23 +1,60 @@
 package com.edstem.product_catalog.config;
 
+import com.edstem.product_catalog.codec.VersionedRedisSerializer;
+import com.edstem.product_catalog.service.CacheInvalidationBroadcaster;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+@Slf4j
 @Configuration
 @EnableCaching
 public class GenericRedisConfig {
 
+    @Value("${cache.redis.serializer:json}")
+    private VersionedRedisSerializer.Format serializerFormat;
+
+    @Value("${cache.redis.compression:none}")
+    private String compression;
+
+    @Value("${cache.redis.compression-threshold:1024}")
+    private int compressionThreshold;
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.setValueSerializer(redisValueSerializer());
         return redisTemplate;
     }
+
+    @Bean
+    public VersionedRedisSerializer redisValueSerializer() {
+        log.info("Configuring Redis value serializer: format={}, compression={}, threshold={}",
+                serializerFormat, compression, compressionThreshold);
+        // Cached search results carry ProductDocument's LocalDate fields, JSON-cached products their Instant timestamps.
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        return new VersionedRedisSerializer(json, serializerFormat,
+                "lz4".equalsIgnoreCase(compression), compressionThreshold);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                          CacheInvalidationBroadcaster invalidationBroadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(invalidationBroadcaster, new ChannelTopic(CacheInvalidationBroadcaster.CHANNEL));
+        return container;
+    }
 }
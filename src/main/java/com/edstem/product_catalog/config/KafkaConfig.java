@@ -1,6 +1,10 @@
 package com.edstem.product_catalog.config;
 
+import com.edstem.product_catalog.codec.CatalogAvroDeserializer;
+import com.edstem.product_catalog.codec.FileSchemaRegistry;
 import com.edstem.product_catalog.contract.ProductDTO;
+import com.edstem.product_catalog.event.ProductViewEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,8 +24,11 @@ import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.util.backoff.FixedBackOff;
 
@@ -35,6 +42,7 @@ public class KafkaConfig {
 
     private final KafkaTemplate<String, ProductDTO> kafkaTemplate;
     private final Environment environment;
+    private final MeterRegistry meterRegistry;
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
@@ -42,6 +50,9 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${kafka.schema-registry.locations:" + FileSchemaRegistry.DEFAULT_LOCATIONS + "}")
+    private String schemaLocations;
+
     @PostConstruct
     public void logConfiguration() {
         log.info("=== KAFKA CONFIGURATION DEBUG ===");
@@ -85,38 +96,146 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ConsumerFactory<String, ProductDTO> consumerFactory() {
+    public ConsumerFactory<String, Object> consumerFactory() {
         log.info("Creating ConsumerFactory with bootstrap servers: {}", bootstrapServers);
+        return productConsumerFactory(Map.of());
+    }
+
+    /**
+     * {@code product-topic} carries both {@link com.edstem.product_catalog.model.Product} and
+     * {@link ProductDTO}; the Avro writer schema says which. JSON records from before the switch
+     * to Avro are still read, trusting only the catalog's own packages.
+     */
+    private ConsumerFactory<String, Object> productConsumerFactory(Map<String, Object> overrides) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, CatalogAvroDeserializer.class);
+        props.put(FileSchemaRegistry.LOCATIONS_CONFIG, schemaLocations);
+        props.putAll(overrides);
 
         JsonDeserializer<ProductDTO> jsonDeserializer = new JsonDeserializer<>(ProductDTO.class);
-        jsonDeserializer.addTrustedPackages("*");
+        jsonDeserializer.addTrustedPackages("com.edstem.product_catalog.model", "com.edstem.product_catalog.contract");
+
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new CatalogAvroDeserializer<>(Object.class, jsonDeserializer)));
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), jsonDeserializer);
+    /**
+     * These factories are built here rather than by Boot, so they need the client metrics listener
+     * registered explicitly; it is what exports consumer lag ({@code kafka.consumer.fetch.manager.records.lag.max}).
+     */
+    private <K, V> DefaultKafkaConsumerFactory<K, V> withClientMetrics(DefaultKafkaConsumerFactory<K, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer() {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> {
+                    log.info("Message failed due to {}", e.getMessage());
+                    return new TopicPartition("product-topic-dlt", record.partition());
+                }
+        );
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, ProductDTO> kafkaListenerContainerFactory() {
-        var factory = new ConcurrentKafkaListenerContainerFactory<String, ProductDTO>();
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, Object>();
         factory.setConsumerFactory(consumerFactory());
         factory.setConcurrency(3);
 
         var errorHandler = new DefaultErrorHandler(
-                new DeadLetterPublishingRecoverer(kafkaTemplate,
-                        (record, e) -> {
-                            log.info("Message failed due to {}", e.getMessage());
-                            return new TopicPartition("product-topic-dlt", record.partition());
-                        }
-                ),
+                deadLetterPublishingRecoverer(),
                 new FixedBackOff(1000L, 2)
         );
 
         factory.setCommonErrorHandler(errorHandler);
         return factory;
     }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            @Value("${kafka.indexing.max-poll-records:500}") int maxPollRecords) {
+        Map<String, Object> overrides = Map.of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, Object>();
+        factory.setConsumerFactory(productConsumerFactory(overrides));
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // A failed bulk request is retried as a whole, then each record goes to the DLT.
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                deadLetterPublishingRecoverer(),
+                new FixedBackOff(1000L, 2)
+        ));
+        return factory;
+    }
+
+    /**
+     * Record listener whose records are acknowledged out of order as they finish. With async acks the
+     * container commits only the contiguous acknowledged prefix of each partition and pauses it until
+     * the previous poll is fully acknowledged.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> parallelKafkaListenerContainerFactory(
+            @Value("${kafka.product-consumer.max-poll-records:500}") int maxPollRecords) {
+        Map<String, Object> overrides = Map.of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, Object>();
+        factory.setConsumerFactory(productConsumerFactory(overrides));
+        factory.setConcurrency(3);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ProductViewEvent> productViewBatchListenerContainerFactory(
+            @Value("${kafka.views.max-poll-records:2000}") int maxPollRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(FileSchemaRegistry.LOCATIONS_CONFIG, schemaLocations);
+
+        JsonDeserializer<ProductViewEvent> jsonDeserializer = new JsonDeserializer<>(ProductViewEvent.class, false);
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, ProductViewEvent>();
+        factory.setConsumerFactory(withClientMetrics(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new CatalogAvroDeserializer<>(ProductViewEvent.class, jsonDeserializer)))));
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    /**
+     * Per-instance group reading every view partition for trending. It never commits: the listener
+     * seeks back by the trending window on assignment, so committed offsets would only leave stale
+     * groups behind on the broker.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ProductViewEvent> trendingViewListenerContainerFactory(
+            @Value("${kafka.views.max-poll-records:2000}") int maxPollRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(FileSchemaRegistry.LOCATIONS_CONFIG, schemaLocations);
+
+        JsonDeserializer<ProductViewEvent> jsonDeserializer = new JsonDeserializer<>(ProductViewEvent.class, false);
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, ProductViewEvent>();
+        factory.setConsumerFactory(withClientMetrics(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new CatalogAvroDeserializer<>(ProductViewEvent.class, jsonDeserializer)))));
+        factory.setConcurrency(1);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
 }
@@ -0,0 +1,37 @@
+package com.edstem.product_catalog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+public class NearCacheConfig {
+
+    @Value("${cache.near.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${cache.near.expire-after-write:30s}")
+    private Duration expireAfterWrite;
+
+    @Bean
+    public Cache<String, Object> nearCache(MeterRegistry meterRegistry) {
+        log.info("Configuring near cache with maximum size {} and TTL {}", maximumSize, expireAfterWrite);
+        Cache<String, Object> nearCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "near", Tags.of("tier", "l1"));
+        return nearCache;
+    }
+}
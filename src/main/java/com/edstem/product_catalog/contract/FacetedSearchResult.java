@@ -0,0 +1,21 @@
+package com.edstem.product_catalog.contract;
+
+import com.edstem.product_catalog.document.ProductDocument;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResult {
+    private List<ProductDocument> items;
+    private long totalHits;
+    private List<FacetBucket> categories;
+    private List<PriceRangeBucket> priceRanges;
+    private long inStock;
+}
@@ -0,0 +1,18 @@
+package com.edstem.product_catalog.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRangeBucket {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
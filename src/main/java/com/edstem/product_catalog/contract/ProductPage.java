@@ -0,0 +1,18 @@
+package com.edstem.product_catalog.contract;
+
+import com.edstem.product_catalog.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> items;
+    private String nextCursor;
+}
@@ -0,0 +1,6 @@
+package com.edstem.product_catalog.contract;
+
+public enum ReindexMode {
+    IN_PLACE,
+    ALIAS
+}
@@ -0,0 +1,27 @@
+package com.edstem.product_catalog.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReindexStatus {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    private State state;
+    private ReindexMode mode;
+    private String targetIndex;
+    private long processed;
+    private long failed;
+    private double docsPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,8 @@
+package com.edstem.product_catalog.contract;
+
+public enum StockUpdateResult {
+    APPLIED,
+    INSUFFICIENT_STOCK,
+    STOCK_LIMIT_EXCEEDED,
+    NOT_FOUND
+}
@@ -0,0 +1,15 @@
+package com.edstem.product_catalog.contract;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingProduct {
+    private Long productId;
+    private long views;
+}
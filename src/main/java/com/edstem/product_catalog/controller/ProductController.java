@@ -1,8 +1,11 @@
 package com.edstem.product_catalog.controller;
 
+import com.edstem.product_catalog.contract.ProductPage;
+import com.edstem.product_catalog.contract.StockUpdateResult;
 import com.edstem.product_catalog.kafka.ProductProducer;
 import com.edstem.product_catalog.model.Product;
 import com.edstem.product_catalog.service.ProductService;
+import com.edstem.product_catalog.service.StockService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +23,9 @@ public class ProductController {
 
     private final ProductService productService;
     private final ProductProducer productProducer;
+    private final StockService stockService;
+
+    private static final int MAX_BULK_IDS = 100;
 
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
@@ -53,14 +59,35 @@ public class ProductController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        log.info("Fetching all products");
+    public ResponseEntity<ProductPage> getProducts(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        log.info("Fetching products page with cursor: {}", cursor);
+        try {
+            ProductPage page = productService.getProductsPage(cursor, size);
+            log.info("Retrieved {} products", page.getItems().size());
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid products page request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Error fetching products page: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Product>> getProductsByIds(@RequestParam List<Long> ids) {
+        log.info("Fetching {} products by id", ids.size());
+        if (ids.size() > MAX_BULK_IDS) {
+            log.warn("Too many ids requested: {}", ids.size());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         try {
-            List<Product> products = productService.getAllProducts();
+            List<Product> products = productService.getProductsByIds(ids);
             log.info("Retrieved {} products", products.size());
             return new ResponseEntity<>(products, HttpStatus.OK);
         } catch (Exception e) {
-            log.error("Error fetching all products: {}", e.getMessage());
+            log.error("Error fetching products by id: {}", e.getMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -96,16 +123,75 @@ public class ProductController {
         }
     }
 
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Void> reserveStock(@PathVariable Long id, @RequestParam int quantity) {
+        log.info("Reserving {} units of product {}", quantity, id);
+        try {
+            return stockResponse(id, stockService.reserve(id, quantity));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid stock reservation for product {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Error reserving stock for product {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<Void> adjustStock(@PathVariable Long id, @RequestParam int delta) {
+        log.info("Adjusting stock of product {} by {}", id, delta);
+        try {
+            return stockResponse(id, stockService.adjust(id, delta));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid stock adjustment for product {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            log.error("Error adjusting stock for product {}: {}", id, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static ResponseEntity<Void> stockResponse(Long id, StockUpdateResult result) {
+        return switch (result) {
+            case APPLIED -> new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            case INSUFFICIENT_STOCK -> {
+                log.warn("Insufficient stock for product {}", id);
+                yield new ResponseEntity<>(HttpStatus.CONFLICT);
+            }
+            case STOCK_LIMIT_EXCEEDED -> {
+                log.warn("Stock of product {} would exceed the maximum", id);
+                yield new ResponseEntity<>(HttpStatus.CONFLICT);
+            }
+            case NOT_FOUND -> {
+                log.warn("Product not found for stock change with id: {}", id);
+                yield new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        };
+    }
+
     @PostMapping("/send")
     public ResponseEntity<String> sendProduct(@RequestBody Product product) {
-        productProducer.sendProduct(product);
-        return ResponseEntity.ok("Product sent to Kafka");
+        try {
+            productProducer.sendProduct(product);
+            return ResponseEntity.ok("Product sent to Kafka");
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected product send: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            log.warn("Kafka producer is saturated: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
     }
 
     @PostMapping("/send-all")
     public ResponseEntity<String> sendMany() {
-        productProducer.sendProducts();
-        return ResponseEntity.ok("Products sent to Kafka");
+        try {
+            productProducer.sendProducts();
+            return ResponseEntity.ok("Products sent to Kafka");
+        } catch (IllegalStateException e) {
+            log.warn("Kafka producer is saturated: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
     }
 }
 
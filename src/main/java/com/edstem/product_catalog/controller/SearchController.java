@@ -1,16 +1,32 @@
 package com.edstem.product_catalog.controller;
 
+import com.edstem.product_catalog.contract.FacetedSearchResult;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+import com.edstem.product_catalog.contract.ProductSearchPage;
+import com.edstem.product_catalog.contract.ReindexMode;
+import com.edstem.product_catalog.contract.ReindexStatus;
 import com.edstem.product_catalog.document.ProductDocument;
 import com.edstem.product_catalog.service.SearchService;
+import com.edstem.product_catalog.service.SuggestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -20,6 +36,8 @@ import java.util.List;
 public class SearchController {
 
     private final SearchService searchService;
+    private final SuggestService suggestService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/products")
     public ResponseEntity<List<ProductDocument>> searchProducts(@RequestParam(required = false) String q) {
@@ -61,12 +79,114 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(searchService.paginatedSearch(q, pageable));
+        try {
+            return ResponseEntity.ok(searchService.paginatedSearch(q, pageable));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected paginated search: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/products/query")
+    public ResponseEntity<Page<ProductDocument>> searchProductsByCriteria(
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                .text(text)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .build();
+        try {
+            return ResponseEntity.ok(searchService.search(criteria, PageRequest.of(page, size)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected structured search: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/products/facets")
+    public ResponseEntity<FacetedSearchResult> facetedSearch(
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder()
+                .text(text)
+                .category(category)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .inStock(inStock)
+                .build();
+        try {
+            return ResponseEntity.ok(searchService.facetedSearch(criteria, PageRequest.of(page, size)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected faceted search: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, size));
+    }
+
+    @GetMapping("/products/cursor")
+    public ResponseEntity<ProductSearchPage> searchProductsWithCursor(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(searchService.searchAfter(q, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected cursor search: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(value = "/products/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String q) {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            long exported = searchService.exportProducts(q, doc -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(doc));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            log.info("Streamed {} products as NDJSON", exported);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @PostMapping("/reindex")
-    public ResponseEntity<String> reindexAllProducts() {
-        searchService.reindexAll();
-        return ResponseEntity.ok("Reindexing completed successfully");
+    public ResponseEntity<ReindexStatus> reindexAllProducts(@RequestParam(required = false) ReindexMode mode) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(searchService.reindexAll(mode));
+        } catch (IllegalStateException e) {
+            log.warn("Reindex not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(searchService.reindexStatus());
+        }
+    }
+
+    @GetMapping("/reindex/status")
+    public ResponseEntity<ReindexStatus> reindexStatus() {
+        return ResponseEntity.ok(searchService.reindexStatus());
     }
 }
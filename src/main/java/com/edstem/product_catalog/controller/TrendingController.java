@@ -0,0 +1,32 @@
+package com.edstem.product_catalog.controller;
+
+import com.edstem.product_catalog.contract.TrendingProduct;
+import com.edstem.product_catalog.service.TrendingTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trending")
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingController {
+
+    private final TrendingTracker trendingTracker;
+
+    @GetMapping
+    public ResponseEntity<List<TrendingProduct>> getTrendingProducts(
+            @RequestParam(defaultValue = "15") int window,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(trendingTracker.trending(window, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected trending request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+}
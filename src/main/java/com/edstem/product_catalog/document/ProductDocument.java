@@ -1,17 +1,24 @@
 package com.edstem.product_catalog.document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Builder
@@ -51,6 +58,17 @@ public class ProductDocument {
     @Field(type = FieldType.Date)
     private LocalDate updatedAt;
 
+    /**
+     * Typeahead input. Only ever written to Elasticsearch, never returned from the API or cached.
+     */
+    @JsonIgnore
+    @CompletionField(maxInputLength = 100)
+    private Completion suggest;
+
+    /**
+     * Dates come from the entity, so indexing a product again, or reindexing the whole catalog,
+     * keeps the day it was created rather than stamping the day of the write.
+     */
     public static ProductDocument fromProduct(com.edstem.product_catalog.model.Product product) {
         return ProductDocument.builder()
                 .id(String.valueOf(product.getId()))
@@ -60,9 +78,32 @@ public class ProductDocument {
                 .category(product.getCategory())
                 .price(product.getPrice())
                 .stock(product.getStock())
-                .viewCount(0L)
-                .createdAt(LocalDate.now())
-                .updatedAt(LocalDate.now())
+                .viewCount(product.getViewCount() != null ? product.getViewCount() : 0L)
+                .createdAt(toDate(product.getCreatedAt()))
+                .updatedAt(toDate(product.getUpdatedAt()))
+                .suggest(suggestFor(product.getName(), product.getViewCount()))
                 .build();
     }
+
+    private static LocalDate toDate(Instant instant) {
+        return instant == null ? null : LocalDate.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    /**
+     * Indexes the full name plus every suffix starting at a word boundary, so "mou" completes
+     * "Wireless Mouse" as well as "Mouse Pad". Popular products are weighted first.
+     */
+    public static Completion suggestFor(String name, Long viewCount) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String[] words = name.strip().split("\\s+");
+        List<String> inputs = new ArrayList<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            inputs.add(String.join(" ", List.of(words).subList(i, words.length)));
+        }
+        Completion completion = new Completion(inputs.toArray(String[]::new));
+        completion.setWeight((int) Math.min(viewCount != null ? viewCount : 0L, Integer.MAX_VALUE));
+        return completion;
+    }
 }
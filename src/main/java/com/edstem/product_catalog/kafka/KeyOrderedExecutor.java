@@ -0,0 +1,38 @@
+package com.edstem.product_catalog.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks concurrently across keys but strictly one after another, in submission order,
+ * within a key. Each key keeps only the tail of its chain, which is dropped once it completes,
+ * so idle keys cost nothing. A failed task does not stop the tasks queued behind it; callers
+ * observe the failure on the future they got back. Tasks without a key are unordered.
+ */
+public class KeyOrderedExecutor<K> {
+
+    private final Executor executor;
+    private final ConcurrentMap<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Void> submit(K key, Runnable task) {
+        if (key == null) {
+            return CompletableFuture.runAsync(task, executor);
+        }
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.runAsync(task, executor)
+                : tail.exceptionally(e -> null).thenRunAsync(task, executor));
+        next.whenComplete((result, e) -> tails.remove(key, next));
+        return next;
+    }
+
+    /** Number of keys with a task queued or running. */
+    public int activeKeys() {
+        return tails.size();
+    }
+}
@@ -0,0 +1,205 @@
+package com.edstem.product_catalog.kafka;
+
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.model.ProductOutbox;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
+import com.edstem.product_catalog.repository.ProductRepository;
+import com.edstem.product_catalog.service.GenericCacheService;
+import com.edstem.product_catalog.service.ProductService;
+import com.edstem.product_catalog.service.StockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@code product_outbox} to {@code product-topic}. Each batch publishes the current state
+ * of every product it touches, keyed by product id, or a tombstone once the product is gone.
+ * When every row for a product only touched some fields, their union is sent in the
+ * {@value #CHANGED_FIELDS_HEADER} header so consumers can apply a partial update.
+ * Rows are deleted only after Kafka acknowledged the sends, in the same transaction that locked
+ * them; a failed send rolls back and the rows are picked up again on the next run.
+ * <p>
+ * Only one instance relays at a time: each batch first takes a Postgres advisory lock and the
+ * other instances skip their run. Claiming rows with {@code SKIP LOCKED} alone would let two
+ * instances send different rows of the same product concurrently, so an older state could be
+ * acknowledged after a newer one. Batches are sent and acknowledged before the next one starts,
+ * which keeps every product's records in outbox order.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    public static final String CHANGED_FIELDS_HEADER = "product-changed-fields";
+
+    /** Advisory lock key shared by all relay instances; an arbitrary constant. */
+    static final long RELAY_LOCK_KEY = 0x6F7574626F78L;
+
+    private final ProductOutboxRepository outboxRepository;
+    private final ProductRepository productRepository;
+    private final KafkaTemplate<String, Product> kafkaTemplate;
+    private final GenericCacheService cacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final Counter relayedEvents;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+
+    public OutboxRelay(ProductOutboxRepository outboxRepository,
+                       ProductRepository productRepository,
+                       KafkaTemplate<String, Product> kafkaTemplate,
+                       GenericCacheService cacheService,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.productRepository = productRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.cacheService = cacheService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+
+        this.relayedEvents = Counter.builder("outbox.relay.events")
+                .description("Outbox rows published to Kafka")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest outbox row seen by the last relay run")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Outbox rows waiting to be relayed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /** A full count of the outbox table, so it runs far less often than the relay itself. */
+    @Scheduled(fixedDelayString = "${outbox.pending.refresh-interval-ms:10000}")
+    public void refreshPending() {
+        try {
+            pending.set(outboxRepository.count());
+        } catch (Exception e) {
+            log.warn("Could not count pending outbox rows: {}", e.getMessage());
+        }
+    }
+
+    int relayBatch() {
+        if (!outboxRepository.tryLockRelay(RELAY_LOCK_KEY)) {
+            log.debug("Another instance is relaying the outbox");
+            lagMillis.set(0);
+            return 0;
+        }
+        List<ProductOutbox> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+        Map<Long, Set<String>> changedFields = new LinkedHashMap<>();
+        Set<Long> fullUpdates = new HashSet<>();
+        for (ProductOutbox row : batch) {
+            Set<String> fields = changedFields.computeIfAbsent(row.getProductId(), id -> new LinkedHashSet<>());
+            if (row.getEventType() == ProductOutbox.EventType.DELETE || row.getChangedFields() == null) {
+                fullUpdates.add(row.getProductId());
+            } else {
+                fields.addAll(Arrays.asList(row.getChangedFields().split(",")));
+            }
+        }
+        Set<Long> productIds = changedFields.keySet();
+
+        Map<Long, Product> current = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> current.put(product.getId(), product));
+
+        CompletableFuture<?>[] sends = productIds.stream()
+                .map(id -> kafkaTemplate.send(toRecord(id, current.get(id),
+                        fullUpdates.contains(id) ? null : changedFields.get(id))))
+                .toArray(CompletableFuture[]::new);
+        awaitSends(sends);
+
+        refreshCache(productIds, current, !fullUpdates.isEmpty() || changedFields.values().stream()
+                .anyMatch(fields -> !Set.of(StockService.STOCK_FIELD).containsAll(fields)));
+        outboxRepository.deleteAllInBatch(batch);
+        relayedEvents.increment(batch.size());
+
+        log.info("Relayed {} outbox rows for {} products", batch.size(), productIds.size());
+        return batch.size();
+    }
+
+    private static ProducerRecord<String, Product> toRecord(Long id, Product product, Set<String> fields) {
+        ProducerRecord<String, Product> record =
+                new ProducerRecord<>(ProductService.PRODUCT_TOPIC, String.valueOf(id), product);
+        if (product != null && fields != null) {
+            record.headers().add(CHANGED_FIELDS_HEADER, String.join(",", fields).getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    private void awaitSends(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acks", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+    }
+
+    /**
+     * Cached product pages are only invalidated when the batch changed more than stock; stock
+     * moves far too often for that, so pages may show it up to their TTL old.
+     */
+    private void refreshCache(Set<Long> productIds, Map<Long, Product> current, boolean pagesChanged) {
+        Map<String, Product> entries = new HashMap<>();
+        for (Long id : productIds) {
+            Product product = current.get(id);
+            if (product != null) {
+                entries.put(ProductService.PRODUCT_CACHE_PREFIX + id, product);
+            } else {
+                cacheService.evictCache(ProductService.PRODUCT_CACHE_PREFIX + id);
+            }
+        }
+        if (!entries.isEmpty()) {
+            cacheService.cacheObjects(entries, ProductService.PRODUCT_CACHE_TTL);
+        }
+        if (pagesChanged) {
+            cacheService.incrementGeneration(ProductService.PRODUCT_PAGE_GENERATION);
+        }
+    }
+}
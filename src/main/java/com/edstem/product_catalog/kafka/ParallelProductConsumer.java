@@ -0,0 +1,108 @@
+package com.edstem.product_catalog.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Alternative to {@link ProductConsumer#listen} that processes records of one partition
+ * concurrently on virtual threads, so a slow record only holds back later records for the same
+ * product instead of the whole partition. Records are chained per key (the product id), which
+ * keeps every product's updates in offset order.
+ * <p>
+ * Each record is acknowledged when its processing finished. The container runs with async acks
+ * and commits only up to the lowest offset that is not yet acknowledged, so a crash never skips
+ * an unprocessed record; it pauses the partition while acks from the previous poll are pending,
+ * which bounds the work in flight to {@code max-poll-records}. A record that still fails after
+ * the retries goes to the DLT and is acknowledged, like the container error handler would do.
+ * <p>
+ * Enabled with {@code kafka.product-consumer.mode=parallel}, which also stops the serial listener.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "kafka.product-consumer.mode", havingValue = "parallel")
+public class ParallelProductConsumer {
+
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final KeyOrderedExecutor<String> keyOrderedExecutor = new KeyOrderedExecutor<>(workers);
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    public ParallelProductConsumer(DeadLetterPublishingRecoverer deadLetterRecoverer,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${kafka.product-consumer.max-attempts:3}") int maxAttempts,
+                                   @Value("${kafka.product-consumer.retry-backoff:1s}") Duration retryBackoff) {
+        this.deadLetterRecoverer = deadLetterRecoverer;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        Gauge.builder("kafka.consumer.parallel.keys.active", keyOrderedExecutor, KeyOrderedExecutor::activeKeys)
+                .description("Product keys with a record queued or being processed")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "product-topic", groupId = "product-consumer-group",
+            containerFactory = "parallelKafkaListenerContainerFactory")
+    public void listen(ConsumerRecord<String, Object> record, Acknowledgment acknowledgment) {
+        keyOrderedExecutor.submit(record.key(), () -> {
+            processWithRetries(record);
+            acknowledgment.acknowledge();
+        });
+    }
+
+    private void processWithRetries(ConsumerRecord<String, Object> record) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                process(record);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Giving up on product record {}-{}@{} after {} attempts: {}",
+                            record.topic(), record.partition(), record.offset(), attempt, e.getMessage());
+                    deadLetterRecoverer.accept(record, e);
+                    return;
+                }
+                if (!backOff()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    void process(ConsumerRecord<String, Object> record) {
+        log.info("Received product: {}", record.value());
+        log.info("Thread: {}, Topic: {}, Partition: {}, Offset: {}, Timestamp: {}",
+                Thread.currentThread(), record.topic(), record.partition(), record.offset(), record.timestamp());
+    }
+
+    private boolean backOff() {
+        try {
+            Thread.sleep(retryBackoff);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Records still queued are left unacknowledged and are redelivered to whichever consumer
+     * picks the partition up next.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
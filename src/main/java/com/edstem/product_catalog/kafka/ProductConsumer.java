@@ -1,39 +1,54 @@
 package com.edstem.product_catalog.kafka;
 
+import com.edstem.product_catalog.event.ProductViewEvent;
 import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.service.ViewCountAggregator;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ProductConsumer {
 
-    @KafkaListener(topics = "product-topic", groupId = "product-consumer-group", concurrency = "3")
-    public void listen(Product product, @Header(KafkaHeaders.RECEIVED_PARTITION) String partition,
+    private final ViewCountAggregator viewCountAggregator;
+
+    /**
+     * Processes each partition one record at a time. Stays stopped when
+     * {@link ParallelProductConsumer} takes over the group.
+     */
+    @KafkaListener(topics = "product-topic", groupId = "product-consumer-group", concurrency = "3",
+            autoStartup = "#{'${kafka.product-consumer.mode:serial}' != 'parallel'}")
+    public void listen(@Payload(required = false) Product product, @Header(KafkaHeaders.RECEIVED_PARTITION) String partition,
                        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                        @Header(KafkaHeaders.OFFSET) String offset,
                        @Header(KafkaHeaders.RECEIVED_TIMESTAMP) String timestamp) {
-        try {
-            Thread.sleep(ThreadLocalRandom.current().nextInt(1000, 4000));
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-
         log.info("Received product: {}", product);
         log.info("Thread: {}, Topic: {}, Partition: {}, Offset: {}, Timestamp: {}",
                 Thread.currentThread().getName(), topic, partition, offset, timestamp);
     }
 
-    @KafkaListener(topics = "product-views", groupId = "product-view-consumer-group")
-    public void handleProductView(com.edstem.product_catalog.event.ProductViewEvent event) {
-        log.info("Processing product view event: ProductId={}, UserId={}, Time={}",
-                event.getProductId(),
-                event.getUserId(),
-                event.getViewedAt());
+    /** Trending is fed separately by {@link TrendingViewConsumer}, which sees every partition. */
+    @KafkaListener(topics = "product-views", groupId = "product-view-consumer-group",
+            containerFactory = "productViewBatchListenerContainerFactory")
+    public void handleProductViews(List<ProductViewEvent> events) {
+        int skipped = 0;
+        for (ProductViewEvent event : events) {
+            if (event == null || event.getProductId() == null) {
+                skipped++;
+                continue;
+            }
+            viewCountAggregator.record(event.getProductId());
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} of {} unreadable product view events", skipped, events.size());
+        }
     }
 }
\ No newline at end of file
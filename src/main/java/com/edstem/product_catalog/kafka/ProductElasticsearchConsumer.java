@@ -1,38 +1,110 @@
 package com.edstem.product_catalog.kafka;
 
+import com.edstem.product_catalog.document.ProductDocument;
 import com.edstem.product_catalog.model.Product;
 import com.edstem.product_catalog.service.ElasticsearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes each poll of {@code product-topic} as one bulk request. Records are deduplicated by
+ * product id so only the latest state per product is sent, and a tombstone keyed by product id
+ * deletes the document. Records carrying {@link OutboxRelay#CHANGED_FIELDS_HEADER} become
+ * partial updates of just those fields; the field sets of several records for one product are
+ * merged, and any record without the header turns the product into a full reindex.
+ * <p>
+ * Offsets are committed by the container once this method returns, i.e. after the bulk
+ * request completed. Items rejected by Elasticsearch, deletes included, go to the DLT by product
+ * id, while a failure of the whole request propagates so the error handler retries the batch.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ProductElasticsearchConsumer {
 
     private final ElasticsearchService elasticsearchService;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+
+    @KafkaListener(topics = "product-topic", groupId = "elasticsearch-consumer-group",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consumeProductsForIndexing(List<ConsumerRecord<String, Object>> records) {
+        Map<String, ConsumerRecord<String, Object>> latest = new LinkedHashMap<>();
+        Map<String, Set<String>> partialFields = new HashMap<>();
+        Set<String> fullUpdates = new HashSet<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            String id = productId(record);
+            if (id == null) {
+                deadLetterRecoverer.accept(record,
+                        new IllegalArgumentException("Record has no product id: " + record.value()));
+                continue;
+            }
+            latest.remove(id);
+            latest.put(id, record);
+
+            Set<String> fields = changedFields(record);
+            if (fields == null || fullUpdates.contains(id)) {
+                fullUpdates.add(id);
+                partialFields.remove(id);
+            } else {
+                partialFields.computeIfAbsent(id, key -> new HashSet<>()).addAll(fields);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        List<String> deletedIds = latest.entrySet().stream()
+                .filter(entry -> entry.getValue().value() == null)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<ProductDocument> docs = latest.values().stream()
+                .filter(record -> record.value() != null)
+                .map(record -> ProductDocument.fromProduct((Product) record.value()))
+                .toList();
+
+        Set<String> failedIds = elasticsearchService.bulkWrite(docs, partialFields, deletedIds);
+        for (String id : failedIds) {
+            ConsumerRecord<String, Object> record = latest.get(id);
+            if (record != null) {
+                deadLetterRecoverer.accept(record,
+                        new IllegalStateException("Elasticsearch rejected product " + id));
+            }
+        }
+
+        log.info("Indexed {} ({} partially) and deleted {} products from {} records ({} failed)",
+                docs.size(), partialFields.size(), deletedIds.size(), records.size(), failedIds.size());
+    }
+
+    private static String productId(ConsumerRecord<String, Object> record) {
+        if (record.value() instanceof Product product && product.getId() != null) {
+            return String.valueOf(product.getId());
+        }
+        if (record.value() == null && record.key() != null && !record.key().isEmpty()
+                && record.key().chars().allMatch(Character::isDigit)) {
+            return record.key();
+        }
+        return null;
+    }
 
-    @KafkaListener(topics = "product-topic", groupId = "elasticsearch-consumer-group")
-    public void consumeProductForIndexing(Product product) {
-        try {
-            log.info("Received product for Elasticsearch indexing: {}", product.getName());
-
-            Product productToIndex = Product.builder()
-                    .id(product.getId())
-                    .name(product.getName())
-                    .description(product.getDescription())
-                    .category(product.getCategory())
-                    .price(product.getPrice())
-                    .stock(product.getStock())
-                    .build();
-
-            elasticsearchService.indexProduct(productToIndex);
-
-            log.info("Successfully indexed product in Elasticsearch: {}", product.getName());
-        } catch (Exception e) {
-            log.error("Error indexing product in Elasticsearch: {}", e.getMessage(), e);
+    private static Set<String> changedFields(ConsumerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(OutboxRelay.CHANGED_FIELDS_HEADER);
+        if (record.value() == null || header == null) {
+            return null;
         }
+        return new HashSet<>(Arrays.asList(new String(header.value(), StandardCharsets.UTF_8).split(",")));
     }
 }
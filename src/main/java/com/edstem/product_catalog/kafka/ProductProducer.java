@@ -1,48 +1,149 @@
 package com.edstem.product_catalog.kafka;
 
 import com.edstem.product_catalog.model.Product;
-import lombok.RequiredArgsConstructor;
+import com.edstem.product_catalog.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
+/**
+ * Publishes products to {@code product-topic}, keyed by product id so every update of one product
+ * lands on the same partition in order. Sends are asynchronous and batched by the producer
+ * (see {@code spring.kafka.producer} for linger, batch size, compression and idempotence).
+ * <p>
+ * At most {@code max-in-flight-sends} records may be unacknowledged at once. Callers beyond that
+ * block for up to {@code backpressure-timeout} and then fail, rather than piling records into
+ * the producer buffer until {@code max.block.ms} trips inside {@code send}.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductProducer {
 
     private final KafkaTemplate<String, Product> kafkaTemplate;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Duration backpressureTimeout;
+    private final long batchSizeBytes;
+    private final Counter failedSends;
 
-    @Async
-    public void sendProduct(Product product) {
+    public ProductProducer(KafkaTemplate<String, Product> kafkaTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${kafka.producer.max-in-flight-sends:10000}") int maxInFlight,
+                           @Value("${kafka.producer.backpressure-timeout:5s}") Duration backpressureTimeout,
+                           @Value("${spring.kafka.producer.batch-size:16KB}") DataSize batchSize) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.backpressureTimeout = backpressureTimeout;
+        this.batchSizeBytes = batchSize.toBytes();
+
+        this.failedSends = Counter.builder("kafka.producer.sends.failed")
+                .description("Product records Kafka did not acknowledge")
+                .tag("topic", ProductService.PRODUCT_TOPIC)
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.sends.in.flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Product records sent but not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.batch.fill.ratio", this, ProductProducer::batchFillRatio)
+                .description("Average record batch size relative to the configured batch.size")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rejects products without an id: the record key would be {@code "null"}, every such product
+     * would share one partition, and the consumers downstream dead-letter records they cannot key.
+     */
+    public CompletableFuture<SendResult<String, Product>> sendProduct(Product product) {
+        if (product.getId() == null) {
+            throw new IllegalArgumentException("Cannot send a product without an id");
+        }
+        acquire();
+        CompletableFuture<SendResult<String, Product>> sent;
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            sent = kafkaTemplate.send(ProductService.PRODUCT_TOPIC, String.valueOf(product.getId()), product);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            failedSends.increment();
+            throw e;
         }
-        kafkaTemplate.send("product-topic", String.valueOf(product.getId() % 5), product);
-        log.info("Sent product: {}", product);
+        return sent.whenComplete((result, e) -> {
+            inFlight.release();
+            if (e != null) {
+                failedSends.increment();
+                log.error("Failed to send product {}: {}", product.getId(), e.getMessage());
+            }
+        });
     }
 
-    public void sendProducts() {
-        IntStream.range(0, 10).forEach(i -> {
-            Product product = Product.builder()
-                    .id((long) i)
-                    .name("Product" + i)
-                    .description("Description for product " + i)
-                    .category(i % 2 == 0 ? "Electronics" : "Books")
-                    .price(BigDecimal.valueOf(99.99 + i * 10))
-                    .stock(100 - i * 5)
-                    .build();
-            sendProduct(product);
-        });
+    /**
+     * Hands every product to the producer without waiting in between, so they share batches.
+     * The returned future completes once all of them were acknowledged, or fails with the
+     * first failure.
+     */
+    public CompletableFuture<Void> sendProducts(Collection<Product> products) {
+        CompletableFuture<?>[] sends = products.stream()
+                .map(this::sendProduct)
+                .toArray(CompletableFuture[]::new);
+        log.info("Sent {} products", sends.length);
+        return CompletableFuture.allOf(sends);
+    }
+
+    public CompletableFuture<Void> sendProducts() {
+        List<Product> products = IntStream.range(0, 10)
+                .mapToObj(i -> Product.builder()
+                        .id((long) i)
+                        .name("Product" + i)
+                        .description("Description for product " + i)
+                        .category(i % 2 == 0 ? "Electronics" : "Books")
+                        .price(BigDecimal.valueOf(99.99 + i * 10))
+                        .stock(100 - i * 5)
+                        .build())
+                .toList();
+        return sendProducts(products);
     }
 
     public void flush() {
         kafkaTemplate.flush();
     }
+
+    private void acquire() {
+        try {
+            if (!inFlight.tryAcquire(backpressureTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Kafka producer backlog full: " + maxInFlight
+                        + " sends awaiting acknowledgement for over " + backpressureTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka producer capacity", e);
+        }
+    }
+
+    private double batchFillRatio() {
+        for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+            if ("batch-size-avg".equals(metric.getKey().name())
+                    && "producer-metrics".equals(metric.getKey().group())
+                    && metric.getValue().metricValue() instanceof Double average) {
+                return average / batchSizeBytes;
+            }
+        }
+        return Double.NaN;
+    }
 }
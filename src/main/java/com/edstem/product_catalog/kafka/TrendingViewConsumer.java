@@ -0,0 +1,60 @@
+package com.edstem.product_catalog.kafka;
+
+import com.edstem.product_catalog.event.ProductViewEvent;
+import com.edstem.product_catalog.service.TrendingTracker;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds every view into this instance's {@link TrendingTracker}. View counts are shared work and
+ * split across the replicas of {@code product-view-consumer-group}, but each replica serves
+ * {@code /api/trending} from its own tracker, so this listener joins a consumer group of its own,
+ * named per instance, and reads all partitions.
+ * <p>
+ * No offsets are committed. On assignment the partitions are rewound by the longest trending
+ * window instead, and views are bucketed by record timestamp, so a restarted instance rebuilds its
+ * window from the topic. The broker drops the empty group once the instance is gone.
+ */
+@Service
+public class TrendingViewConsumer extends AbstractConsumerSeekAware {
+
+    private static final Duration REPLAY = Duration.ofMinutes(
+            TrendingTracker.WINDOWS_MINUTES.stream().mapToInt(Integer::intValue).max().orElseThrow());
+
+    private final TrendingTracker trendingTracker;
+    private final Clock clock;
+
+    public TrendingViewConsumer(TrendingTracker trendingTracker) {
+        this(trendingTracker, Clock.systemUTC());
+    }
+
+    TrendingViewConsumer(TrendingTracker trendingTracker, Clock clock) {
+        this.trendingTracker = trendingTracker;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        callback.seekToTimestamp(assignments.keySet(), clock.millis() - REPLAY.toMillis());
+    }
+
+    @KafkaListener(topics = "product-views", groupId = "product-views-trending-${random.uuid}",
+            containerFactory = "trendingViewListenerContainerFactory")
+    public void handleProductViews(List<ConsumerRecord<String, ProductViewEvent>> records) {
+        for (ConsumerRecord<String, ProductViewEvent> record : records) {
+            ProductViewEvent event = record.value();
+            if (event != null && event.getProductId() != null) {
+                trendingTracker.record(event.getProductId(), record.timestamp());
+            }
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.edstem.product_catalog.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 @Entity
@@ -11,6 +15,8 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "products")
+// Only changed columns are written, so an edit that leaves stock alone cannot overwrite a reservation.
+@DynamicUpdate
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,4 +26,17 @@ public class Product {
     private String category;
     private BigDecimal price;
     private Integer stock;
+
+    // Maintained only by ViewCountAggregator's batched increments, never written through JPA.
+    @Column(name = "view_count", insertable = false, updatable = false)
+    private Long viewCount;
+
+    // Set by Hibernate; conditional stock updates bypass the entity and leave updatedAt alone.
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.edstem.product_catalog.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "product_outbox")
+public class ProductOutbox {
+
+    public enum EventType { UPSERT, DELETE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EventType eventType;
+
+    // Comma-separated product fields touched by an UPSERT; null means the whole product.
+    private String changedFields;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,26 @@
+package com.edstem.product_catalog.repository;
+
+import com.edstem.product_catalog.model.ProductOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductOutboxRepository extends JpaRepository<ProductOutbox, Long> {
+
+    /**
+     * Takes the relay's transaction-scoped advisory lock, or returns false right away when another
+     * instance holds it. Released on commit or rollback.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLockRelay(@Param("key") long key);
+
+    /**
+     * Locks the oldest pending rows for the current transaction. Only the instance holding
+     * {@link #tryLockRelay} calls this, so the row locks just guard against a concurrent delete.
+     */
+    @Query(value = "SELECT * FROM product_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ProductOutbox> lockNextBatch(@Param("limit") int limit);
+}
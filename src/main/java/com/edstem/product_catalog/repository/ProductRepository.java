@@ -1,7 +1,45 @@
 package com.edstem.product_catalog.repository;
 
 import com.edstem.product_catalog.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Applies {@code delta} in a single statement unless it would take stock below zero or past
+     * {@link Integer#MAX_VALUE}. Returns the number of rows updated, i.e. 0 when the product is
+     * missing or the result would be out of range.
+     */
+    default int adjustStock(Long id, int delta) {
+        long minStock = Math.max(0L, -(long) delta);
+        long maxStock = Integer.MAX_VALUE - Math.max(0L, delta);
+        if (minStock > Integer.MAX_VALUE) {
+            return 0;
+        }
+        return adjustStockWithin(id, delta, (int) minStock, (int) maxStock);
+    }
+
+    /**
+     * The bounds are checked on the current stock rather than on the sum, so the database never
+     * evaluates an addition that overflows the column.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = COALESCE(p.stock, 0) + :delta "
+            + "WHERE p.id = :id AND COALESCE(p.stock, 0) BETWEEN :minStock AND :maxStock")
+    int adjustStockWithin(@Param("id") Long id, @Param("delta") int delta,
+                          @Param("minStock") int minStock, @Param("maxStock") int maxStock);
 }
@@ -0,0 +1,109 @@
+package com.edstem.product_catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Broadcasts near-cache invalidations to every replica over Redis pub/sub.
+ * Keys are buffered and published in batches so bulk writes cost one message per batch.
+ */
+@Slf4j
+@Service
+public class CacheInvalidationBroadcaster implements MessageListener {
+
+    public static final String CHANNEL = "cache-invalidation";
+
+    private static final String SEPARATOR = "\n";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, Object> nearCache;
+    private final int maxBatchSize;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    private final Counter sentKeys;
+    private final Counter receivedKeys;
+
+    public CacheInvalidationBroadcaster(StringRedisTemplate stringRedisTemplate,
+                                        Cache<String, Object> nearCache,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${cache.invalidation.max-batch-size:500}") int maxBatchSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
+        this.maxBatchSize = maxBatchSize;
+        this.sentKeys = Counter.builder("cache.invalidations")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.receivedKeys = Counter.builder("cache.invalidations")
+                .tag("direction", "received")
+                .register(meterRegistry);
+    }
+
+    public void publish(String key) {
+        pendingKeys.add(key);
+        if (pendingKeys.size() >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.invalidation.flush-interval-ms:50}")
+    public void flush() {
+        while (!pendingKeys.isEmpty()) {
+            List<String> batch = drainBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                stringRedisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + String.join(SEPARATOR, batch));
+                sentKeys.increment(batch.size());
+            } catch (Exception e) {
+                log.info("Error publishing {} cache invalidations: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (lines.length < 2 || instanceId.equals(lines[0])) {
+            return;
+        }
+
+        List<String> keys = Arrays.asList(lines).subList(1, lines.length);
+        nearCache.invalidateAll(keys);
+        receivedKeys.increment(keys.size());
+        log.debug("Invalidated {} near cache keys from {}", keys.size(), lines[0]);
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    private List<String> drainBatch() {
+        List<String> batch = new ArrayList<>(Math.min(maxBatchSize, pendingKeys.size()));
+        Iterator<String> iterator = pendingKeys.iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+}
@@ -1,21 +1,67 @@
 package com.edstem.product_catalog.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.FieldSuggester;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+import com.edstem.product_catalog.contract.FacetBucket;
+import com.edstem.product_catalog.contract.FacetedSearchResult;
+import com.edstem.product_catalog.contract.PriceRangeBucket;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+import com.edstem.product_catalog.contract.ProductSearchPage;
 import com.edstem.product_catalog.document.ProductDocument;
-import com.edstem.product_catalog.model.Product;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
-import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.Query.PointInTime;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.data.elasticsearch.core.suggest.response.CompletionSuggestion;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -24,77 +70,276 @@ import java.util.stream.Collectors;
 public class ElasticsearchService {
 
     private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ProductIndexManager indexManager;
+    private final SearchResultCache searchResultCache;
+    private final MeterRegistry meterRegistry;
 
-    public void indexProduct(Product product) {
-        log.info("Indexing product with ID: {}", product.getId());
-        elasticsearchOperations.save(product);
+    private final Map<String, Timer> queryTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> bulkSizes = new ConcurrentHashMap<>();
+
+    @Value("${search.max-results:100}")
+    private int maxResults;
+
+    @Value("${search.max-page-window:10000}")
+    private int maxPageWindow;
+
+    @Value("${search.export.batch-size:1000}")
+    private int exportBatchSize;
+
+    @Value("${search.pit.keep-alive:1m}")
+    private Duration pitKeepAlive;
+
+    @Value("${search.facets.category-size:20}")
+    private int categoryFacetSize;
+
+    @Value("${search.facets.price-ranges:25,50,100,250,500}")
+    private List<BigDecimal> priceFacetBoundaries;
+
+    private static final String CATEGORY_FACET = "categories";
+    private static final String PRICE_FACET = "price_ranges";
+    private static final String IN_STOCK_FACET = "in_stock";
+    private static final String NAME_SUGGESTION = "name_suggest";
+
+    private static final String VIEW_COUNT_SCRIPT =
+            "ctx._source.viewCount = (ctx._source.viewCount == null ? 0 : ctx._source.viewCount) + params.delta";
+
+    public void deleteProducts(Collection<String> ids, IndexCoordinates index) {
+        ids.forEach(id -> elasticsearchOperations.delete(id, index));
+        log.info("Deleted {} products from {}", ids.size(), index.getIndexName());
     }
 
-    public void updateProduct(Product product) {
-        log.info("Updating product with ID: {}", product.getId());
-        ProductDocument doc = ProductDocument.fromProduct(product);
-        elasticsearchOperations.save(doc);
+    public Set<String> bulkIndex(List<ProductDocument> documents) {
+        Set<String> failedIds;
+        try {
+            failedIds = bulkIndex(documents, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+        } finally {
+            invalidateIfAny(documents);
+        }
+        mirrorToBuildIndex(index -> bulkIndex(documents, index));
+        return failedIds;
     }
 
-    public void deleteProduct(String id) {
-        log.info("Deleting product with ID: {}", id);
-        elasticsearchOperations.delete(id, ProductDocument.class);
+    public Set<String> bulkIndex(List<ProductDocument> documents, IndexCoordinates index) {
+        return bulkIndex(documents, index, false);
     }
 
-    public void reindexAllProducts(List<Product> products) {
-        log.info("Reindexing {} products...", products.size());
-        elasticsearchOperations.save(products);
-        log.info("Reindex completed.");
+    /**
+     * With {@code createOnly} set, documents that already exist in the target are left alone.
+     * The reindex snapshot uses this so it never overwrites a newer mirrored live write.
+     */
+    public Set<String> bulkIndex(List<ProductDocument> documents, IndexCoordinates index, boolean createOnly) {
+        if (documents.isEmpty()) {
+            return Set.of();
+        }
+
+        List<IndexQuery> queries = documents.stream()
+                .map(doc -> new IndexQueryBuilder()
+                        .withId(doc.getId())
+                        .withObject(doc)
+                        .withOpType(createOnly ? IndexQuery.OpType.CREATE : IndexQuery.OpType.INDEX)
+                        .build())
+                .toList();
+
+        recordBulkSize(createOnly ? "create" : "index", queries.size());
+        try {
+            elasticsearchOperations.bulkIndex(queries, index);
+            log.info("Bulk indexed {} products into {}", documents.size(), index.getIndexName());
+            return Set.of();
+        } catch (BulkFailureException e) {
+            Set<String> failedIds = e.getFailedDocuments().entrySet().stream()
+                    .filter(failure -> !(createOnly && isVersionConflict(failure.getValue())))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+            log.error("Bulk indexing failed for {} of {} products: {}",
+                    failedIds.size(), documents.size(), e.getMessage());
+            return failedIds;
+        }
     }
 
-    public List<ProductDocument> searchProducts(String q) {
-        if (q == null || q.isBlank()) {
-            return findAll();
+    /**
+     * Writes one consumer poll as a single bulk request: documents with an entry in
+     * {@code changedFields} become partial updates of just those fields, falling back to indexing
+     * the whole document when it does not exist yet, the rest are indexed whole, and
+     * {@code deletedIds} are deleted. Untouched fields such as {@code createdAt} and
+     * {@code viewCount} keep their indexed values. Returns the ids Elasticsearch rejected; deleting
+     * a document that is already gone is not a failure.
+     */
+    public Set<String> bulkWrite(List<ProductDocument> documents, Map<String, Set<String>> changedFields,
+                                 Collection<String> deletedIds) {
+        if (documents.isEmpty() && deletedIds.isEmpty()) {
+            return Set.of();
         }
 
-        Query query = NativeQuery.builder()
-                .withQuery(qb -> qb
-                        .queryString(qs -> qs
-                                .query(q)
-                                .fields("name", "description")))
-                .build();
+        ElasticsearchConverter converter = elasticsearchOperations.getElasticsearchConverter();
+        List<BulkOperation> operations = new ArrayList<>(documents.size() + deletedIds.size());
+        for (ProductDocument doc : documents) {
+            Document source = converter.mapObject(doc);
+            Set<String> fields = changedFields.get(doc.getId());
+            if (fields == null) {
+                operations.add(BulkOperation.of(o -> o.index(i -> i.id(doc.getId()).document(source))));
+            } else {
+                Document partial = partialDocument(doc, fields);
+                operations.add(BulkOperation.of(o -> o.<Document, Document>update(u -> u
+                        .id(doc.getId())
+                        .action(a -> a.doc(partial).upsert(source)))));
+            }
+        }
+        for (String id : deletedIds) {
+            operations.add(BulkOperation.of(o -> o.delete(d -> d.id(id))));
+        }
+
+        Set<String> failedIds;
+        try {
+            failedIds = bulkWrite(operations, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+        } finally {
+            searchResultCache.invalidate();
+        }
+        mirrorToBuildIndex(index -> bulkWrite(operations, index));
+        log.info("Wrote {} and deleted {} products ({} failed)", documents.size(), deletedIds.size(), failedIds.size());
+        return failedIds;
+    }
+
+    private Set<String> bulkWrite(List<BulkOperation> operations, IndexCoordinates index) {
+        recordBulkSize("write", operations.size());
+        BulkResponse response;
+        try {
+            response = elasticsearchClient.bulk(BulkRequest.of(b -> b
+                    .index(index.getIndexName())
+                    .operations(operations)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bulk request to " + index.getIndexName() + " failed", e);
+        }
+        if (!response.errors()) {
+            return Set.of();
+        }
+        Set<String> failedIds = response.items().stream()
+                .filter(item -> item.error() != null)
+                .map(BulkResponseItem::id)
+                .collect(Collectors.toSet());
+        log.error("Bulk write failed for {} of {} operations in {}", failedIds.size(), operations.size(), index.getIndexName());
+        return failedIds;
+    }
+
+    private static Document partialDocument(ProductDocument doc, Set<String> fields) {
+        Document partial = Document.create();
+        for (String field : fields) {
+            switch (field) {
+                case "name" -> {
+                    partial.put("name", doc.getName());
+                    if (doc.getSuggest() != null) {
+                        partial.put("suggest", Map.of(
+                                "input", List.of(doc.getSuggest().getInput()),
+                                "weight", doc.getSuggest().getWeight()));
+                    }
+                }
+                case "description" -> partial.put("description", doc.getDescription());
+                case "category" -> partial.put("category", doc.getCategory());
+                case "price" -> partial.put("price", doc.getPrice());
+                case "stock" -> partial.put("stock", doc.getStock());
+                default -> log.warn("Ignoring unknown changed field {} for product {}", field, doc.getId());
+            }
+        }
+        if (doc.getUpdatedAt() != null) {
+            partial.put("updatedAt", doc.getUpdatedAt().toString());
+        }
+        return partial;
+    }
+
+    /**
+     * Deliberately leaves the search result cache alone: counts flush every second, so bumping
+     * the generation here would cap cached results at that lifetime. Cached hits may show view
+     * counts up to the result TTL old.
+     */
+    public Set<String> incrementViewCounts(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+
+        List<UpdateQuery> updates = deltas.entrySet().stream()
+                .map(delta -> UpdateQuery.builder(String.valueOf(delta.getKey()))
+                        .withScript(VIEW_COUNT_SCRIPT)
+                        .withScriptType(ScriptType.INLINE)
+                        .withLang("painless")
+                        .withParams(Map.of("delta", delta.getValue()))
+                        .build())
+                .toList();
+
+        Set<String> failedIds = bulkUpdate("view_count", updates, elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class));
+        mirrorToBuildIndex(index -> bulkUpdate("view_count", updates, index));
+        return failedIds;
+    }
 
-        return executeSearch(query);
+    private Set<String> bulkUpdate(String operation, List<UpdateQuery> updates, IndexCoordinates index) {
+        recordBulkSize(operation, updates.size());
+        try {
+            elasticsearchOperations.bulkUpdate(updates, index);
+            return Set.of();
+        } catch (BulkFailureException e) {
+            log.error("Bulk update failed for {} of {} products in {}: {}",
+                    e.getFailedDocuments().size(), updates.size(), index.getIndexName(), e.getMessage());
+            return e.getFailedDocuments().keySet();
+        }
+    }
+
+    private void invalidateIfAny(List<ProductDocument> documents) {
+        if (!documents.isEmpty()) {
+            searchResultCache.invalidate();
+        }
+    }
+
+    private void mirrorToBuildIndex(Consumer<IndexCoordinates> write) {
+        String buildIndex = indexManager.currentBuildIndex();
+        if (buildIndex == null) {
+            return;
+        }
+        try {
+            write.accept(IndexCoordinates.of(buildIndex));
+        } catch (Exception e) {
+            log.warn("Failed to mirror write into build index {}: {}", buildIndex, e.getMessage());
+        }
+    }
+
+    private static boolean isVersionConflict(Object failure) {
+        String details = String.valueOf(failure);
+        return details.contains("version conflict") || details.contains("version_conflict");
+    }
+
+    public List<ProductDocument> searchProducts(String q) {
+        return executeSearch("query", NativeQuery.builder()
+                .withQuery(textQuery(q))
+                .build());
     }
 
     public List<ProductDocument> searchProductsByName(String name) {
-        Query query = NativeQuery.builder()
+        NativeQuery query = NativeQuery.builder()
                 .withQuery(q -> q.match(m -> m
                         .field("name")
                         .query(name)))
                 .build();
 
-        return executeSearch(query);
+        return executeSearch("name", query);
     }
 
     public List<ProductDocument> searchProductsByCategory(String category) {
-        Query query = NativeQuery.builder()
-                .withQuery(q -> q.match(m -> m
-                        .field("category")
-                        .query(category)))
-                .build();
-
-        return executeSearch(query);
+        return executeSearch("category", NativeQuery.builder()
+                .withQuery(ProductQueryBuilder.build(ProductSearchCriteria.builder()
+                        .category(category)
+                        .build()))
+                .build());
     }
 
     public List<ProductDocument> searchProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        String rangeQuery = "price:[" + minPrice + " TO " + maxPrice + "]";
-
-        Query query = NativeQuery.builder()
-                .withQuery(q -> q.queryString(qs -> qs
-                        .query(rangeQuery)))
-                .build();
-
-        return executeSearch(query);
+        return executeSearch("price", NativeQuery.builder()
+                .withQuery(ProductQueryBuilder.build(ProductSearchCriteria.builder()
+                        .minPrice(minPrice)
+                        .maxPrice(maxPrice)
+                        .build()))
+                .build());
     }
 
     public List<ProductDocument> fuzzySearch(String q) {
-        Query query = NativeQuery.builder()
+        NativeQuery query = NativeQuery.builder()
                 .withQuery(qb -> qb
                         .fuzzy(f -> f
                                 .field("name")
@@ -102,31 +347,150 @@ public class ElasticsearchService {
                                 .fuzziness("AUTO")))
                 .build();
 
-        return executeSearch(query);
+        return executeSearch("fuzzy", query);
     }
 
-    public List<ProductDocument> advancedSearch(String name, BigDecimal minPrice) {
-        StringBuilder queryBuilder = new StringBuilder();
+    /**
+     * Completion-suggester lookup for typeahead. Runs against the in-memory FST of the
+     * {@code suggest} field rather than the inverted index, and returns no regular hits.
+     */
+    public List<String> suggestNames(String prefix, int size) {
+        NativeQuery query = NativeQuery.builder()
+                .withSuggester(Suggester.of(s -> s.suggesters(NAME_SUGGESTION, FieldSuggester.of(f -> f
+                        .prefix(prefix)
+                        .completion(c -> c
+                                .field("suggest")
+                                .size(size)
+                                .skipDuplicates(true))))))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("name").build())
+                .withMaxResults(0)
+                .build();
+
+        SearchHits<ProductDocument> hits = search("suggest", query);
+        Suggest suggest = hits.getSuggest();
+        Suggest.Suggestion<? extends Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option>> suggestion =
+                suggest == null ? null : suggest.getSuggestion(NAME_SUGGESTION);
+        if (suggestion == null) {
+            return new ArrayList<>();
+        }
 
+        Set<String> names = new LinkedHashSet<>();
+        for (Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option> entry : suggestion.getEntries()) {
+            for (Suggest.Suggestion.Entry.Option option : entry.getOptions()) {
+                names.add(suggestedName(option));
+            }
+        }
+        return names.stream().limit(size).collect(Collectors.toList());
+    }
+
+    private static String suggestedName(Suggest.Suggestion.Entry.Option option) {
+        if (option instanceof CompletionSuggestion.Entry.Option<?> completion
+                && completion.getSearchHit() != null
+                && completion.getSearchHit().getContent() instanceof ProductDocument doc
+                && doc.getName() != null) {
+            return doc.getName();
+        }
+        return option.getText();
+    }
+
+    public List<ProductDocument> advancedSearch(String name, BigDecimal minPrice) {
+        BoolQuery.Builder bool = new BoolQuery.Builder()
+                .filter(ProductQueryBuilder.build(ProductSearchCriteria.builder()
+                        .minPrice(minPrice)
+                        .build()));
         if (name != null && !name.isBlank()) {
-            queryBuilder.append("name:").append(name);
+            bool.must(q -> q.match(m -> m
+                    .field("name")
+                    .query(name)));
         }
 
-        if (minPrice != null) {
-            if (queryBuilder.length() > 0) queryBuilder.append(" AND ");
-            queryBuilder.append("price:[").append(minPrice).append(" TO *]");
+        return executeSearch("advanced", NativeQuery.builder()
+                .withQuery(q -> q.bool(bool.build()))
+                .build());
+    }
+
+    /**
+     * Structured search: free text is scored, every other criterion is a cached filter.
+     */
+    public Page<ProductDocument> searchProducts(ProductSearchCriteria criteria, Pageable pageable) {
+        checkResultWindow(pageable);
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(ProductQueryBuilder.build(criteria))
+                .withPageable(pageable)
+                .build();
+
+        SearchHits<ProductDocument> hits = search("structured", query);
+        return new PageImpl<>(hits.getSearchHits().stream().map(SearchHit::getContent).collect(Collectors.toList()),
+                pageable, hits.getTotalHits());
+    }
+
+    /**
+     * Hits plus category, price-range and in-stock counts for the same criteria, computed by
+     * aggregations in the one search request.
+     */
+    public FacetedSearchResult facetedSearch(ProductSearchCriteria criteria, Pageable pageable) {
+        checkResultWindow(pageable);
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(ProductQueryBuilder.build(criteria))
+                .withPageable(pageable)
+                .withAggregation(CATEGORY_FACET, Aggregation.of(a -> a.terms(t -> t
+                        .field("category")
+                        .size(categoryFacetSize))))
+                .withAggregation(PRICE_FACET, Aggregation.of(a -> a.range(r -> r
+                        .field("price")
+                        .ranges(priceRanges()))))
+                .withAggregation(IN_STOCK_FACET, Aggregation.of(a -> a.filter(ProductQueryBuilder.build(
+                        ProductSearchCriteria.builder().inStock(true).build()))))
+                .build();
+
+        SearchHits<ProductDocument> hits = search("faceted", query);
+        Map<String, Aggregate> aggregations = new HashMap<>();
+        if (hits.getAggregations() instanceof ElasticsearchAggregations container) {
+            container.aggregationsAsMap().forEach((name, aggregation) ->
+                    aggregations.put(name, aggregation.aggregation().getAggregate()));
         }
 
-        Query query = NativeQuery.builder()
-                .withQuery(q -> q.queryString(qs -> qs
-                        .query(queryBuilder.toString())))
+        // Mutable lists only: the result may be cached, and the Redis serializer records concrete types.
+        return FacetedSearchResult.builder()
+                .items(hits.getSearchHits().stream().map(SearchHit::getContent).collect(Collectors.toList()))
+                .totalHits(hits.getTotalHits())
+                .categories(aggregations.containsKey(CATEGORY_FACET)
+                        ? aggregations.get(CATEGORY_FACET).sterms().buckets().array().stream()
+                                .map(bucket -> new FacetBucket(bucket.key().stringValue(), bucket.docCount()))
+                                .collect(Collectors.toList())
+                        : new ArrayList<>())
+                .priceRanges(aggregations.containsKey(PRICE_FACET)
+                        ? aggregations.get(PRICE_FACET).range().buckets().array().stream()
+                                .map(bucket -> new PriceRangeBucket(
+                                        bucket.from() == null ? null : BigDecimal.valueOf(bucket.from()),
+                                        bucket.to() == null ? null : BigDecimal.valueOf(bucket.to()),
+                                        bucket.docCount()))
+                                .collect(Collectors.toList())
+                        : new ArrayList<>())
+                .inStock(aggregations.containsKey(IN_STOCK_FACET)
+                        ? aggregations.get(IN_STOCK_FACET).filter().docCount()
+                        : 0)
                 .build();
+    }
 
-        return executeSearch(query);
+    private List<AggregationRange> priceRanges() {
+        List<AggregationRange> ranges = new ArrayList<>();
+        BigDecimal from = null;
+        for (BigDecimal to : priceFacetBoundaries) {
+            BigDecimal lower = from;
+            ranges.add(AggregationRange.of(r -> r
+                    .from(lower == null ? null : lower.doubleValue())
+                    .to(to.doubleValue())));
+            from = to;
+        }
+        BigDecimal last = from;
+        ranges.add(AggregationRange.of(r -> r.from(last == null ? null : last.doubleValue())));
+        return ranges;
     }
 
     public Page<ProductDocument> searchProductsWithPagination(String q, Pageable pageable) {
-        Query query = NativeQuery.builder()
+        checkResultWindow(pageable);
+        NativeQuery query = NativeQuery.builder()
                 .withQuery(qb -> qb
                         .queryString(qs -> qs
                                 .query(q)
@@ -134,7 +498,7 @@ public class ElasticsearchService {
                 .withPageable(pageable)
                 .build();
 
-        SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
+        SearchHits<ProductDocument> hits = search("paginated", query);
 
         List<ProductDocument> content = hits.getSearchHits()
                 .stream()
@@ -145,18 +509,131 @@ public class ElasticsearchService {
     }
 
     public List<ProductDocument> findAll() {
-        Query query = NativeQuery.builder()
+        NativeQuery query = NativeQuery.builder()
                 .withQuery(q -> q.matchAll(m -> m))
                 .build();
 
-        return executeSearch(query);
+        return executeSearch("all", query);
     }
 
-    private List<ProductDocument> executeSearch(Query query) {
-        SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
+    /**
+     * Deep pagination with flat latency: the first page opens a point in time, and every page
+     * resumes from the sort values of the previous page's last hit instead of skipping
+     * {@code from} hits. The PIT is closed once the last page has been served; abandoned ones
+     * expire after {@code search.pit.keep-alive}.
+     */
+    public ProductSearchPage searchAfter(String q, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), maxResults);
+        SearchCursor position = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+        String pointInTimeId = position != null
+                ? position.pointInTimeId()
+                : elasticsearchOperations.openPointInTime(
+                        elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class), pitKeepAlive);
+
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(textQuery(q))
+                .withSort(q == null || q.isBlank()
+                        ? Sort.by(Sort.Order.asc("productId"))
+                        : Sort.by(Sort.Order.desc("_score"), Sort.Order.asc("productId")))
+                .withPointInTime(new PointInTime(pointInTimeId, pitKeepAlive))
+                .withSearchAfter(position != null ? position.searchAfter() : null)
+                .withMaxResults(pageSize)
+                .withTrackTotalHits(false)
+                .build();
+
+        SearchHits<ProductDocument> hits = search("cursor", query);
+        List<SearchHit<ProductDocument>> page = hits.getSearchHits();
+        String nextPointInTimeId = hits.getPointInTimeId() != null ? hits.getPointInTimeId() : pointInTimeId;
+
+        String nextCursor = null;
+        if (page.size() == pageSize) {
+            nextCursor = new SearchCursor(nextPointInTimeId, page.get(page.size() - 1).getSortValues()).encode();
+        } else {
+            elasticsearchOperations.closePointInTime(nextPointInTimeId);
+        }
+
+        return ProductSearchPage.builder()
+                .items(page.stream().map(SearchHit::getContent).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Streams every matching document to {@code sink} through a scrolled search, holding only one
+     * batch in memory at a time.
+     */
+    public long exportProducts(String q, Consumer<ProductDocument> sink) {
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(textQuery(q))
+                .withPageable(PageRequest.of(0, exportBatchSize))
+                .build();
+
+        long exported = 0;
+        try (SearchHitsIterator<ProductDocument> hits = elasticsearchOperations.searchForStream(query, ProductDocument.class)) {
+            while (hits.hasNext()) {
+                sink.accept(hits.next().getContent());
+                exported++;
+            }
+        }
+        log.info("Exported {} products", exported);
+        return exported;
+    }
+
+    private void checkResultWindow(Pageable pageable) {
+        if (pageable.getPageSize() > maxResults || pageable.getOffset() + pageable.getPageSize() > maxPageWindow) {
+            throw new IllegalArgumentException("Page " + pageable.getPageNumber() + " of size " + pageable.getPageSize()
+                    + " is beyond the " + maxPageWindow + " result window, use the cursor search instead");
+        }
+    }
+
+    private static Query textQuery(String q) {
+        if (q == null || q.isBlank()) {
+            return Query.of(qb -> qb.matchAll(m -> m));
+        }
+        return Query.of(qb -> qb
+                .queryString(qs -> qs
+                        .query(q)
+                        .fields("name", "description")));
+    }
+
+    private List<ProductDocument> executeSearch(String type, NativeQuery query) {
+        if (query.getMaxResults() == null) {
+            query.setMaxResults(maxResults);
+        }
+        SearchHits<ProductDocument> hits = search(type, query);
         return hits.getSearchHits()
                 .stream()
                 .map(SearchHit::getContent)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Times the Elasticsearch round trip alone, whereas {@code search.requests} also covers the
+     * result cache in front of it.
+     */
+    private SearchHits<ProductDocument> search(String type, NativeQuery query) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            SearchHits<ProductDocument> hits = elasticsearchOperations.search(query, ProductDocument.class);
+            outcome = "success";
+            return hits;
+        } finally {
+            String result = outcome;
+            sample.stop(queryTimers.computeIfAbsent(type + "|" + result, id -> Timer.builder("es.query")
+                    .description("Elasticsearch search latency by query type")
+                    .tag("type", type)
+                    .tag("outcome", result)
+                    .register(meterRegistry)));
+        }
+    }
+
+    private void recordBulkSize(String operation, int size) {
+        bulkSizes.computeIfAbsent(operation, op -> DistributionSummary.builder("es.bulk.size")
+                        .description("Documents per Elasticsearch bulk request")
+                        .baseUnit("documents")
+                        .tag("operation", op)
+                        .register(meterRegistry))
+                .record(size);
+    }
 }
\ No newline at end of file
@@ -1,42 +1,240 @@
 package com.edstem.product_catalog.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class GenericCacheService {
 
+    private static final String REDIS_CACHE_NAME = "redis";
+    private static final String REDIS_TIER = "l2";
+    private static final String NEAR_TIER = "l1";
+    private static final int MAX_PREFIX_SEGMENTS = 2;
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<String, Object> nearCache;
+    private final CacheInvalidationBroadcaster invalidationBroadcaster;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisPuts;
+    private final Counter redisEvictions;
+    private final Map<String, Counter> lookupCounters = new ConcurrentHashMap<>();
+
+    public GenericCacheService(RedisTemplate<String, Object> redisTemplate,
+                               Cache<String, Object> nearCache,
+                               CacheInvalidationBroadcaster invalidationBroadcaster,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        this.meterRegistry = meterRegistry;
+        this.redisHits = redisCounter(meterRegistry, "cache.gets", "result", "hit");
+        this.redisMisses = redisCounter(meterRegistry, "cache.gets", "result", "miss");
+        this.redisPuts = redisCounter(meterRegistry, "cache.puts");
+        this.redisEvictions = redisCounter(meterRegistry, "cache.evictions");
+    }
 
     public void cacheObject(String key, Object value) {
         redisTemplate.opsForValue().set(key, value);
+        redisPuts.increment();
+        nearCache.put(key, value);
+        invalidationBroadcaster.publish(key);
     }
 
     public void cacheObject(String key, Object value, Duration timeout) {
+        populate(key, value, timeout);
+        invalidationBroadcaster.publish(key);
+    }
+
+    public void cacheObjects(Map<String, ?> values, Duration timeout) {
+        populateAll(values, timeout);
+        values.keySet().forEach(invalidationBroadcaster::publish);
+    }
+
+    /**
+     * Fills both tiers after a miss without telling other instances. The value was just read from
+     * the source of truth, so their near caches are not stale; broadcasting here would have every
+     * miss on one replica evict the key everywhere else. Use {@link #cacheObject} for writes.
+     */
+    public void populate(String key, Object value, Duration timeout) {
         redisTemplate.opsForValue().set(key, value, timeout);
+        redisPuts.increment();
+        nearCache.put(key, value);
+    }
+
+    public void populateAll(Map<String, ?> values, Duration timeout) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> stringOperations = (RedisOperations<String, Object>) operations;
+                values.forEach((key, value) -> stringOperations.opsForValue().set(key, value, timeout));
+                return null;
+            }
+        });
+        redisPuts.increment(values.size());
+
+        nearCache.putAll(values);
     }
 
     @SuppressWarnings("unchecked")
     public <T> T getCachedObject(String key, Class<T> expectedType) {
-        Object cached = redisTemplate.opsForValue().get(key);
+        Object cached = nearCache.getIfPresent(key);
+        if (cached != null) {
+            recordLookup(key, NEAR_TIER, true);
+        } else {
+            cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                redisHits.increment();
+                nearCache.put(key, cached);
+            } else {
+                redisMisses.increment();
+            }
+            recordLookup(key, REDIS_TIER, cached != null);
+        }
+
         if (expectedType.isInstance(cached)) {
             return (T) cached;
         }
         return null;
     }
 
+    public <T> Map<String, T> getCachedObjects(Collection<String> keys, Class<T> expectedType) {
+        Map<String, T> found = new HashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (String key : keys) {
+            Object cached = nearCache.getIfPresent(key);
+            if (cached == null) {
+                remoteKeys.add(key);
+                continue;
+            }
+            recordLookup(key, NEAR_TIER, true);
+            if (expectedType.isInstance(cached)) {
+                found.put(key, expectedType.cast(cached));
+            }
+        }
+
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+
+        List<Object> values = redisTemplate.opsForValue().multiGet(remoteKeys);
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            Object cached = values == null ? null : values.get(i);
+            recordLookup(remoteKeys.get(i), REDIS_TIER, cached != null);
+            if (cached == null) {
+                redisMisses.increment();
+                continue;
+            }
+            redisHits.increment();
+            nearCache.put(remoteKeys.get(i), cached);
+            if (expectedType.isInstance(cached)) {
+                found.put(remoteKeys.get(i), expectedType.cast(cached));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads a generation counter from Redis on every call. Counters are never kept in the near
+     * cache: a replica that missed the invalidation broadcast would otherwise keep serving entries
+     * of the old generation until its near copy expired.
+     */
+    public long getGeneration(String key) {
+        Object generation = redisTemplate.opsForValue().get(key);
+        recordLookup(key, REDIS_TIER, generation != null);
+        return generation instanceof Number number ? number.longValue() : 0;
+    }
+
+    public long incrementGeneration(String key) {
+        Long generation = redisTemplate.opsForValue().increment(key);
+        nearCache.invalidate(key);
+        invalidationBroadcaster.publish(key);
+        return generation == null ? 0 : generation;
+    }
+
+    public long getRemainingTtlMillis(String key) {
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        return ttl == null ? -2 : ttl;
+    }
+
     public void evictCache(String key) {
+        nearCache.invalidate(key);
         try {
             redisTemplate.delete(key);
+            redisEvictions.increment();
             log.info("Evicted cache: {}", key);
         } catch (Exception e) {
             log.info("Error evicting cache with key {}: {}", key, e.getMessage());
         }
+        invalidationBroadcaster.publish(key);
+    }
+
+    /**
+     * Counts a lookup by the tier that answered it. A miss is always reported against the last
+     * tier asked, so hit ratio per prefix is hits over all lookups of that prefix. Counters are
+     * registered once per prefix, tier and result and then reused.
+     */
+    private void recordLookup(String key, String tier, boolean hit) {
+        String prefix = keyPrefix(key);
+        String result = hit ? "hit" : "miss";
+        lookupCounters.computeIfAbsent(prefix + "|" + tier + "|" + result, id -> Counter.builder("cache.lookups")
+                        .description("Cache lookups by key prefix, answering tier and result")
+                        .tag("prefix", prefix)
+                        .tag("tier", tier)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Leading key segments up to the first id-like one, capped at two so the tag stays bounded:
+     * {@code product:42} becomes {@code product}, {@code search:result:7:query:...} becomes
+     * {@code search:result}.
+     */
+    static String keyPrefix(String key) {
+        String[] segments = key.split(":", MAX_PREFIX_SEGMENTS + 1);
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < Math.min(segments.length, MAX_PREFIX_SEGMENTS); i++) {
+            String segment = segments[i];
+            if (segment.isEmpty() || Character.isDigit(segment.charAt(0))) {
+                break;
+            }
+            if (!prefix.isEmpty()) {
+                prefix.append(':');
+            }
+            prefix.append(segment);
+        }
+        return prefix.isEmpty() ? "other" : prefix.toString();
+    }
+
+    private static Counter redisCounter(MeterRegistry meterRegistry, String name, String... tags) {
+        return Counter.builder(name)
+                .tag("cache", REDIS_CACHE_NAME)
+                .tag("tier", REDIS_TIER)
+                .tags(tags)
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.edstem.product_catalog.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.edstem.product_catalog.document.ProductDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages the timestamped indices behind the {@code products} alias for blue/green reindexing.
+ * While a build index exists its name is published through the shared cache so every replica
+ * mirrors live writes into it and no update is lost between the snapshot and the alias swap.
+ * <p>
+ * Every Elasticsearch write checks for a build index, so replicas keep the answer, including "no
+ * build", for {@code reindex.build-index.cache-ttl} rather than asking Redis each time. That TTL
+ * bounds how long a replica may keep writing only to the live index after a build begins.
+ */
+@Slf4j
+@Service
+public class ProductIndexManager {
+
+    public static final String ALIAS = "products";
+
+    private static final String BUILD_INDEX_KEY = "search:build-index";
+    private static final Duration BUILD_INDEX_TTL = Duration.ofHours(6);
+    private static final DateTimeFormatter INDEX_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final GenericCacheService cacheService;
+    private final SearchResultCache searchResultCache;
+
+    private final String replicas;
+    private final String refreshInterval;
+    private final Duration dualWriteGrace;
+    private final Duration buildIndexCacheTtl;
+
+    private record BuildIndexState(String index, long expiresAtNanos) {
+    }
+
+    private volatile BuildIndexState buildIndexState;
+
+    public ProductIndexManager(ElasticsearchOperations elasticsearchOperations,
+                               ElasticsearchClient elasticsearchClient,
+                               GenericCacheService cacheService,
+                               SearchResultCache searchResultCache,
+                               @Value("${reindex.alias.replicas:1}") String replicas,
+                               @Value("${reindex.alias.refresh-interval:1s}") String refreshInterval,
+                               @Value("${reindex.alias.dual-write-grace:1s}") Duration dualWriteGrace,
+                               @Value("${reindex.build-index.cache-ttl:500ms}") Duration buildIndexCacheTtl) {
+        if (dualWriteGrace.compareTo(buildIndexCacheTtl) < 0) {
+            throw new IllegalArgumentException("reindex.alias.dual-write-grace (" + dualWriteGrace
+                    + ") must not be shorter than reindex.build-index.cache-ttl (" + buildIndexCacheTtl + ")");
+        }
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        this.cacheService = cacheService;
+        this.searchResultCache = searchResultCache;
+        this.replicas = replicas;
+        this.refreshInterval = refreshInterval;
+        this.dualWriteGrace = dualWriteGrace;
+        this.buildIndexCacheTtl = buildIndexCacheTtl;
+    }
+
+    /**
+     * Creates and publishes the build index, then waits out the dual-write grace before the caller
+     * starts the snapshot. Replicas are not asked to acknowledge; the grace is enough because:
+     * <ul>
+     *   <li>a replica checks for the build index after its live write, and its cached answer is at
+     *   most {@code cache-ttl} old, so every check later than publish + TTL sees the build index;</li>
+     *   <li>a live write runs after the Postgres commit it reflects, so a write that is not mirrored
+     *   was checked before publish + TTL and its commit precedes every snapshot read that starts
+     *   after the grace;</li>
+     *   <li>the snapshot only creates missing documents, so it never overwrites a mirrored write.</li>
+     * </ul>
+     * The constructor rejects a grace shorter than the TTL.
+     */
+    public IndexCoordinates beginBuild() throws InterruptedException {
+        IndexCoordinates buildIndex = IndexCoordinates.of(ALIAS + "-" + INDEX_SUFFIX.format(Instant.now()));
+        Document mapping = elasticsearchOperations.indexOps(ProductDocument.class).createMapping();
+        Map<String, Object> settings = Map.of(
+                "index.number_of_replicas", "0",
+                "index.refresh_interval", "-1");
+
+        elasticsearchOperations.indexOps(buildIndex).create(settings, mapping);
+        cacheService.cacheObject(BUILD_INDEX_KEY, buildIndex.getIndexName(), BUILD_INDEX_TTL);
+        buildIndexState = null;
+        log.info("Created build index {}", buildIndex.getIndexName());
+
+        Thread.sleep(dualWriteGrace.toMillis());
+        return buildIndex;
+    }
+
+    public String currentBuildIndex() {
+        BuildIndexState state = buildIndexState;
+        long now = System.nanoTime();
+        if (state == null || now - state.expiresAtNanos() >= 0) {
+            state = new BuildIndexState(cacheService.getCachedObject(BUILD_INDEX_KEY, String.class),
+                    now + buildIndexCacheTtl.toNanos());
+            buildIndexState = state;
+        }
+        return state.index();
+    }
+
+    public void completeBuild(IndexCoordinates buildIndex) throws IOException {
+        String newIndex = buildIndex.getIndexName();
+        elasticsearchClient.indices().putSettings(r -> r
+                .index(newIndex)
+                .settings(s -> s
+                        .numberOfReplicas(replicas)
+                        .refreshInterval(t -> t.time(refreshInterval))));
+        elasticsearchOperations.indexOps(buildIndex).refresh();
+
+        Set<String> previousIndices = aliasedIndices();
+        boolean legacyConcreteIndex = previousIndices.isEmpty()
+                && elasticsearchClient.indices().exists(e -> e.index(ALIAS)).value();
+
+        List<Action> actions = new ArrayList<>();
+        actions.add(Action.of(a -> a.add(add -> add.index(newIndex).alias(ALIAS))));
+        for (String previous : previousIndices) {
+            actions.add(Action.of(a -> a.remove(remove -> remove.index(previous).alias(ALIAS))));
+        }
+        if (legacyConcreteIndex) {
+            actions.add(Action.of(a -> a.removeIndex(remove -> remove.index(ALIAS))));
+        }
+        elasticsearchClient.indices().updateAliases(u -> u.actions(actions));
+        cacheService.evictCache(BUILD_INDEX_KEY);
+        buildIndexState = null;
+        searchResultCache.invalidate();
+        log.info("Alias {} now points to {}", ALIAS, newIndex);
+
+        for (String previous : previousIndices) {
+            if (!previous.equals(newIndex)) {
+                elasticsearchClient.indices().delete(d -> d.index(previous));
+                log.info("Deleted previous index {}", previous);
+            }
+        }
+    }
+
+    public void abortBuild(IndexCoordinates buildIndex) {
+        cacheService.evictCache(BUILD_INDEX_KEY);
+        buildIndexState = null;
+        elasticsearchOperations.indexOps(buildIndex).delete();
+        log.info("Deleted aborted build index {}", buildIndex.getIndexName());
+    }
+
+    private Set<String> aliasedIndices() throws IOException {
+        if (!elasticsearchClient.indices().existsAlias(e -> e.name(ALIAS)).value()) {
+            return Set.of();
+        }
+        return elasticsearchClient.indices().getAlias(g -> g.name(ALIAS)).result().keySet();
+    }
+}
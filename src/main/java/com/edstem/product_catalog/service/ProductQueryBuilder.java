@@ -0,0 +1,64 @@
+package com.edstem.product_catalog.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+
+import java.math.BigDecimal;
+
+/**
+ * Compiles {@link ProductSearchCriteria} into a {@code bool} query. Only free text is scored;
+ * category, price and stock become {@code filter} clauses, which Elasticsearch caches per
+ * segment and which need no query-string parsing.
+ */
+public final class ProductQueryBuilder {
+
+    private ProductQueryBuilder() {
+    }
+
+    public static Query build(ProductSearchCriteria criteria) {
+        if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
+                && criteria.getMinPrice().compareTo(criteria.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice " + criteria.getMinPrice()
+                    + " is greater than maxPrice " + criteria.getMaxPrice());
+        }
+
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+        if (hasText(criteria.getText())) {
+            bool.must(Query.of(q -> q.multiMatch(m -> m
+                    .query(criteria.getText())
+                    .fields("name", "description"))));
+        }
+        if (hasText(criteria.getCategory())) {
+            bool.filter(Query.of(q -> q.term(t -> t
+                    .field("category")
+                    .value(criteria.getCategory()))));
+        }
+        if (criteria.getMinPrice() != null || criteria.getMaxPrice() != null) {
+            bool.filter(priceRange(criteria.getMinPrice(), criteria.getMaxPrice()));
+        }
+        if (criteria.getInStock() != null) {
+            bool.filter(Query.of(q -> q.range(r -> r.number(n -> criteria.getInStock()
+                    ? n.field("stock").gt(0.0)
+                    : n.field("stock").lte(0.0)))));
+        }
+        return Query.of(q -> q.bool(bool.build()));
+    }
+
+    private static Query priceRange(BigDecimal min, BigDecimal max) {
+        return Query.of(q -> q.range(r -> r.number(n -> {
+            n.field("price");
+            if (min != null) {
+                n.gte(min.doubleValue());
+            }
+            if (max != null) {
+                n.lte(max.doubleValue());
+            }
+            return n;
+        })));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
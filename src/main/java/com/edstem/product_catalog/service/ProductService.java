@@ -1,20 +1,40 @@
 package com.edstem.product_catalog.service;
 
 import com.edstem.product_catalog.contract.ProductDTO;
-import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.contract.ProductPage;
 import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.model.ProductOutbox;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
 import com.edstem.product_catalog.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -23,77 +43,209 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final GenericCacheService cacheService;
-    private final KafkaTemplate<String, ProductDTO> kafkaTemplate;
-    private final ElasticsearchService elasticsearchService;
-    private final ElasticsearchOperations elasticsearchOperations;
+    private final ProductOutboxRepository outboxRepository;
+    private final MeterRegistry meterRegistry;
 
-    private static final String PRODUCT_CACHE_PREFIX = "product:";
-    private static final String PRODUCT_LIST_CACHE = "products:all";
-    private static final String PRODUCT_TOPIC = "product-topic";
+    public static final String PRODUCT_CACHE_PREFIX = "product:";
+    private static final String PRODUCT_PAGE_CACHE_PREFIX = "products:page:";
+    /**
+     * Prefix generation of cached product pages, bumped by the outbox relay. Read from Redis on every
+     * page request so a replica that missed the invalidation broadcast still moves to the new pages.
+     */
+    public static final String PRODUCT_PAGE_GENERATION = "products:page:generation";
+    public static final String PRODUCT_TOPIC = "product-topic";
 
-    private static final Duration PRODUCT_CACHE_TTL = Duration.ofMinutes(10);
+    public static final Duration PRODUCT_CACHE_TTL = Duration.ofMinutes(10);
     private static final Duration LIST_CACHE_TTL = Duration.ofMinutes(5);
+    private static final int MAX_PAGE_SIZE = 100;
 
+    private final SingleFlight<String, Product> productLoads = new SingleFlight<>();
+    private final Map<String, Timer> dbLoadTimers = new ConcurrentHashMap<>();
+
+    @Value("${product.cache.early-refresh.enabled:false}")
+    private boolean earlyRefreshEnabled;
+
+    @Value("${product.cache.early-refresh.beta:1.0}")
+    private double earlyRefreshBeta;
+
+    /**
+     * How long the last database load of each product took, the delta XFetch weighs the remaining
+     * TTL against. Kept per key since one slow product must not make every other one refresh early.
+     */
+    private final Cache<String, Long> loadMillis = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(PRODUCT_CACHE_TTL)
+            .build();
+
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Transactional
     public Product createProduct(Product product) {
         log.info("Creating product in DB: {}", product);
         Product toSave = product.toBuilder().build();
         Product saved = productRepository.save(toSave);
 
-        ProductDocument doc = ProductDocument.fromProduct(saved);
-        elasticsearchOperations.save(doc);
-        log.info("Indexed product {} into Elasticsearch", doc.getId());
-
+        recordChange(saved.getId(), ProductOutbox.EventType.UPSERT, null);
         return saved;
     }
 
-    @SneakyThrows
     public Product getProductById(Long id) {
         String cacheKey = PRODUCT_CACHE_PREFIX + id;
 
         Product cachedProduct = cacheService.getCachedObject(cacheKey, Product.class);
         if (cachedProduct != null) {
             log.info("Product found in cache for id: {}", id);
+            if (shouldRefreshEarly(cacheKey)) {
+                refreshInBackground(id, cacheKey);
+            }
             return cachedProduct;
         }
 
+        return productLoads.execute(cacheKey, () -> loadProduct(id, cacheKey));
+    }
+
+    /**
+     * The caller already holds a valid value, so it returns that and the reload runs off the request
+     * path. It still goes through the single-flight, so it never overlaps a miss load of the same key.
+     */
+    private void refreshInBackground(Long id, String cacheKey) {
+        log.info("Refreshing product {} ahead of cache expiry", id);
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    productLoads.execute(cacheKey, () -> loadProduct(id, cacheKey));
+                } catch (RuntimeException e) {
+                    log.warn("Early refresh of product {} failed: {}", id, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipping early refresh of product {} during shutdown", id);
+        }
+    }
+
+    /** Lets refreshes already running finish writing the cache; new ones are skipped. */
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.close();
+    }
+
+    private Product loadProduct(Long id, String cacheKey) {
         log.info("Fetching product from database for id: {}", id);
-        Thread.sleep(1000);
+        long start = System.nanoTime();
         Optional<Product> productOpt = productRepository.findById(id);
+        long elapsed = System.nanoTime() - start;
+        loadMillis.put(cacheKey, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        dbLoadTimer("by_id").record(elapsed, TimeUnit.NANOSECONDS);
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
-            cacheService.cacheObject(cacheKey, product, PRODUCT_CACHE_TTL);
+            cacheService.populate(cacheKey, product, PRODUCT_CACHE_TTL);
             return product;
         }
 
         return null;
     }
 
-    @SneakyThrows
-    public List<Product> getAllProducts() {
-        List<Product> cachedProducts = cacheService.getCachedObject(PRODUCT_LIST_CACHE, List.class);
-        if (cachedProducts != null) {
-            log.info("Products list found in cache");
-            return cachedProducts;
+    private boolean shouldRefreshEarly(String cacheKey) {
+        if (!earlyRefreshEnabled || productLoads.isInFlight(cacheKey)) {
+            return false;
         }
 
-        log.info("Fetching all products from database");
-        List<Product> products = productRepository.findAll();
-        Thread.sleep(1000);
+        // Loaded by another instance or before a restart: there is no delta to weigh the TTL against.
+        Long deltaMillis = loadMillis.getIfPresent(cacheKey);
+        if (deltaMillis == null) {
+            return false;
+        }
 
-        if (!products.isEmpty()) {
-            cacheService.cacheObject(PRODUCT_LIST_CACHE, products, LIST_CACHE_TTL);
-            products.forEach(product -> {
-                cacheService.cacheObject(PRODUCT_CACHE_PREFIX + product.getId(), product, PRODUCT_CACHE_TTL);
-            });
+        long remainingMillis = cacheService.getRemainingTtlMillis(cacheKey);
+        if (remainingMillis < 0) {
+            return false;
+        }
+
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return remainingMillis <= -deltaMillis * earlyRefreshBeta * Math.log(random);
+    }
+
+    public ProductPage getProductsPage(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        long afterId = decodeCursor(cursor);
+        String cacheKey = PRODUCT_PAGE_CACHE_PREFIX + cacheService.getGeneration(PRODUCT_PAGE_GENERATION)
+                + ":" + afterId + ":" + pageSize;
+
+        ProductPage cachedPage = cacheService.getCachedObject(cacheKey, ProductPage.class);
+        if (cachedPage != null) {
+            log.info("Products page found in cache after id: {}", afterId);
+            return cachedPage;
         }
 
-        return products;
+        log.info("Fetching products page from database after id: {}", afterId);
+        List<Product> products = dbLoadTimer("page").record(() ->
+                productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1)));
+        boolean hasMore = products.size() > pageSize;
+        List<Product> items = new ArrayList<>(hasMore ? products.subList(0, pageSize) : products);
+
+        ProductPage page = ProductPage.builder()
+                .items(items)
+                .nextCursor(hasMore ? encodeCursor(items.get(items.size() - 1).getId()) : null)
+                .build();
+        cacheService.populate(cacheKey, page, LIST_CACHE_TTL);
+        cacheProducts(items);
+        return page;
     }
 
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Map<String, Product> cachedProducts = cacheService.getCachedObjects(
+                distinctIds.stream().map(id -> PRODUCT_CACHE_PREFIX + id).toList(), Product.class);
+
+        List<Long> missingIds = distinctIds.stream()
+                .filter(id -> !cachedProducts.containsKey(PRODUCT_CACHE_PREFIX + id))
+                .toList();
+
+        Map<Long, Product> loadedProducts = new HashMap<>();
+        if (!missingIds.isEmpty()) {
+            log.info("Fetching {} of {} products from database", missingIds.size(), distinctIds.size());
+            dbLoadTimer("by_ids").record(() -> productRepository.findAllById(missingIds)
+                    .forEach(product -> loadedProducts.put(product.getId(), product)));
+            cacheProducts(loadedProducts.values());
+        }
+
+        return distinctIds.stream()
+                .map(id -> {
+                    Product cached = cachedProducts.get(PRODUCT_CACHE_PREFIX + id);
+                    return cached != null ? cached : loadedProducts.get(id);
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Timer dbLoadTimer(String operation) {
+        return dbLoadTimers.computeIfAbsent(operation, op -> Timer.builder("product.db.load")
+                .description("Product reads that missed the cache and went to the database")
+                .tag("operation", op)
+                .register(meterRegistry));
+    }
+
+    private void cacheProducts(Collection<Product> products) {
+        Map<String, Product> entries = new HashMap<>();
+        products.forEach(product -> entries.put(PRODUCT_CACHE_PREFIX + product.getId(), product));
+        cacheService.populateAll(entries, PRODUCT_CACHE_TTL);
+    }
+
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         Optional<Product> productOpt = productRepository.findById(id);
         if (productOpt.isPresent()) {
             Product existingProduct = productOpt.get();
+            List<String> changedFields = changedFields(existingProduct, productDetails);
+            if (changedFields.isEmpty()) {
+                log.info("Product {} unchanged, skipping update", id);
+                return existingProduct;
+            }
+
             existingProduct.setName(productDetails.getName());
             existingProduct.setDescription(productDetails.getDescription());
             existingProduct.setCategory(productDetails.getCategory());
@@ -103,45 +255,56 @@ public class ProductService {
             log.info("Updating product in database: {}", id);
             Product updatedProduct = productRepository.save(existingProduct);
 
-            cacheService.cacheObject(PRODUCT_CACHE_PREFIX + id, updatedProduct, PRODUCT_CACHE_TTL);
-            cacheService.evictCache(PRODUCT_LIST_CACHE);
-
-            elasticsearchService.updateProduct(updatedProduct);
-
-            log.info("Product cache updated, Elasticsearch updated, and list cache invalidated");
+            recordChange(id, ProductOutbox.EventType.UPSERT, String.join(",", changedFields));
             return updatedProduct;
         }
         return null;
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         Optional<Product> productOpt = productRepository.findById(id);
         if (productOpt.isPresent()) {
             log.info("Deleting product from database: {}", id);
             productRepository.deleteById(id);
 
-            cacheService.evictCache(PRODUCT_CACHE_PREFIX + id);
-            cacheService.evictCache(PRODUCT_LIST_CACHE);
-
-            elasticsearchService.deleteProduct(String.valueOf(id));
-
-            log.info("Product deleted from database, cache, and Elasticsearch");
+            recordChange(id, ProductOutbox.EventType.DELETE, null);
         }
     }
 
-    @Async
-    public void sendProductUpdate(ProductDTO product) {
-        kafkaTemplate.send(PRODUCT_TOPIC, product);
+    /**
+     * Cache and Elasticsearch are updated by {@link com.edstem.product_catalog.kafka.OutboxRelay}
+     * once this row commits together with the product change.
+     */
+    private void recordChange(Long productId, ProductOutbox.EventType eventType, String changedFields) {
+        outboxRepository.save(ProductOutbox.builder()
+                .productId(productId)
+                .eventType(eventType)
+                .changedFields(changedFields)
+                .createdAt(Instant.now())
+                .build());
     }
 
-    public void reindexAllProducts() {
-        List<Product> allProducts = productRepository.findAll();
-        List<ProductDocument> docs = allProducts.stream()
-                .map(ProductDocument::fromProduct)
-                .toList();
-
-        elasticsearchOperations.save(docs);
-        log.info("Reindexed {} products into Elasticsearch", docs.size());
+    static List<String> changedFields(Product before, Product after) {
+        List<String> changed = new ArrayList<>();
+        if (!Objects.equals(before.getName(), after.getName())) {
+            changed.add("name");
+        }
+        if (!Objects.equals(before.getDescription(), after.getDescription())) {
+            changed.add("description");
+        }
+        if (!Objects.equals(before.getCategory(), after.getCategory())) {
+            changed.add("category");
+        }
+        if (before.getPrice() == null || after.getPrice() == null
+                ? before.getPrice() != after.getPrice()
+                : before.getPrice().compareTo(after.getPrice()) != 0) {
+            changed.add("price");
+        }
+        if (!Objects.equals(before.getStock(), after.getStock())) {
+            changed.add("stock");
+        }
+        return changed;
     }
 
     public static ProductDTO toDto(Product product) {
@@ -153,4 +316,20 @@ public class ProductService {
                 .stock(product.getStock())
                 .build();
     }
+
+    static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
 }
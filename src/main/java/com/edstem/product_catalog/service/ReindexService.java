@@ -0,0 +1,235 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.ReindexMode;
+import com.edstem.product_catalog.contract.ReindexStatus;
+import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams the catalog out of Postgres in keyset-ordered chunks and indexes each chunk as one
+ * bulk request. At most {@code maxInFlight} bulk requests run at a time; the reader blocks
+ * until one completes, so heap usage is bounded by batch size times in-flight requests.
+ * <p>
+ * In {@link ReindexMode#ALIAS} mode the chunks go into a fresh index that only replaces the
+ * live one behind the {@code products} alias once every document made it in. Products deleted
+ * while their chunk was in flight are removed again before the swap.
+ */
+@Slf4j
+@Service
+public class ReindexService {
+
+    private final ProductRepository productRepository;
+    private final ElasticsearchService elasticsearchService;
+    private final ProductIndexManager indexManager;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final ReindexMode defaultMode;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+    private final ExecutorService bulkWorkers;
+    private final AtomicReference<ReindexJob> currentJob = new AtomicReference<>();
+
+    public ReindexService(ProductRepository productRepository,
+                          ElasticsearchService elasticsearchService,
+                          ProductIndexManager indexManager,
+                          @Value("${reindex.batch-size:1000}") int batchSize,
+                          @Value("${reindex.max-in-flight:2}") int maxInFlight,
+                          @Value("${reindex.mode:ALIAS}") ReindexMode defaultMode) {
+        this.productRepository = productRepository;
+        this.elasticsearchService = elasticsearchService;
+        this.indexManager = indexManager;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.defaultMode = defaultMode;
+        this.bulkWorkers = Executors.newFixedThreadPool(maxInFlight);
+    }
+
+    public ReindexStatus start() {
+        return start(defaultMode);
+    }
+
+    public ReindexStatus start(ReindexMode mode) {
+        ReindexJob job = new ReindexJob(mode);
+        ReindexJob previous = currentJob.get();
+        if (previous != null && previous.state == ReindexStatus.State.RUNNING) {
+            throw new IllegalStateException("Reindex already running since " + previous.startedAt);
+        }
+        if (!currentJob.compareAndSet(previous, job)) {
+            throw new IllegalStateException("Reindex already started");
+        }
+
+        log.info("Starting {} reindex with batch size {} and {} bulk requests in flight", mode, batchSize, maxInFlight);
+        coordinator.execute(() -> run(job));
+        return job.snapshot();
+    }
+
+    public ReindexStatus status() {
+        ReindexJob job = currentJob.get();
+        if (job == null) {
+            return ReindexStatus.builder().state(ReindexStatus.State.IDLE).build();
+        }
+        return job.snapshot();
+    }
+
+    private void run(ReindexJob job) {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        IndexCoordinates buildIndex = null;
+        try {
+            if (job.mode == ReindexMode.ALIAS) {
+                buildIndex = indexManager.beginBuild();
+                job.targetIndex = buildIndex.getIndexName();
+            }
+            IndexCoordinates target = buildIndex;
+
+            long afterId = 0L;
+            List<Product> chunk;
+            do {
+                chunk = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(batchSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1).getId();
+
+                inFlight.acquire();
+                List<Product> products = chunk;
+                bulkWorkers.execute(() -> {
+                    try {
+                        indexChunk(job, products, target);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } while (chunk.size() == batchSize);
+
+            inFlight.acquire(maxInFlight);
+            if (buildIndex != null) {
+                if (job.failed.get() > 0) {
+                    abort(buildIndex);
+                    job.finish(ReindexStatus.State.FAILED, job.failed.get() + " documents failed; alias left unchanged");
+                    return;
+                }
+                indexManager.completeBuild(buildIndex);
+            }
+            job.finish(ReindexStatus.State.COMPLETED, null);
+            log.info("Reindex completed: {}", job.snapshot());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(buildIndex);
+            job.finish(ReindexStatus.State.FAILED, "Interrupted");
+        } catch (Exception e) {
+            log.error("Reindex failed: {}", e.getMessage(), e);
+            abort(buildIndex);
+            job.finish(ReindexStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void abort(IndexCoordinates buildIndex) {
+        if (buildIndex == null) {
+            return;
+        }
+        try {
+            indexManager.abortBuild(buildIndex);
+        } catch (Exception e) {
+            log.error("Failed to clean up build index {}: {}", buildIndex.getIndexName(), e.getMessage());
+        }
+    }
+
+    private void indexChunk(ReindexJob job, List<Product> products, IndexCoordinates target) {
+        try {
+            List<ProductDocument> docs = products.stream()
+                    .map(ProductDocument::fromProduct)
+                    .toList();
+            Set<String> failedIds = target == null
+                    ? elasticsearchService.bulkIndex(docs)
+                    : elasticsearchService.bulkIndex(docs, target, true);
+            if (target != null) {
+                dropDeleted(products, target);
+            }
+            job.processed.addAndGet(docs.size() - failedIds.size());
+            job.failed.addAndGet(failedIds.size());
+        } catch (Exception e) {
+            log.error("Bulk request for {} products failed: {}", products.size(), e.getMessage());
+            job.failed.addAndGet(products.size());
+        }
+    }
+
+    /**
+     * A delete mirrored into the build index before the chunk landed finds nothing to remove, and
+     * the snapshot then creates the document again. Postgres commits a delete before it reaches
+     * Elasticsearch, so re-reading the chunk's ids once it is indexed catches every such product;
+     * deletes after that find the document and remove it through the mirror.
+     */
+    private void dropDeleted(List<Product> products, IndexCoordinates target) {
+        Set<Long> existing = new HashSet<>(productRepository.findExistingIds(
+                products.stream().map(Product::getId).toList()));
+        List<String> deleted = products.stream()
+                .map(Product::getId)
+                .filter(id -> !existing.contains(id))
+                .map(String::valueOf)
+                .toList();
+        if (!deleted.isEmpty()) {
+            elasticsearchService.deleteProducts(deleted, target);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        bulkWorkers.shutdownNow();
+    }
+
+    private static final class ReindexJob {
+        private final ReindexMode mode;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile ReindexStatus.State state = ReindexStatus.State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile String targetIndex;
+
+        private ReindexJob(ReindexMode mode) {
+            this.mode = mode;
+        }
+
+        private void finish(ReindexStatus.State finalState, String failure) {
+            finishedAt = Instant.now();
+            error = failure;
+            state = finalState;
+        }
+
+        private ReindexStatus snapshot() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            return ReindexStatus.builder()
+                    .state(state)
+                    .mode(mode)
+                    .targetIndex(targetIndex)
+                    .processed(processed.get())
+                    .failed(failed.get())
+                    .docsPerSecond(processed.get() / seconds)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
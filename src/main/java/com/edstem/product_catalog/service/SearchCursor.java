@@ -0,0 +1,36 @@
+package com.edstem.product_catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque position in a point-in-time search: the PIT id plus the sort values of the last hit
+ * returned, which become the next request's {@code search_after}.
+ */
+record SearchCursor(String pointInTimeId, List<Object> searchAfter) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    static SearchCursor decode(String cursor) {
+        try {
+            SearchCursor decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), SearchCursor.class);
+            if (decoded.pointInTimeId() == null || decoded.searchAfter() == null) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.CachedSearchResult;
+import com.edstem.product_catalog.document.ProductDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches search results under a fingerprint of the normalized query, its pagination and the
+ * current search generation. Every write to the live index bumps the generation, which orphans
+ * all earlier entries at once; they are never read again and simply expire.
+ * <p>
+ * Elasticsearch only makes writes visible on its next refresh, so a generation is not cached
+ * into until {@code settle} has passed since this instance first saw it. Queries in that window
+ * go straight to Elasticsearch, which keeps a pre-refresh result from being stored under the
+ * new generation.
+ */
+@Slf4j
+@Service
+public class SearchResultCache {
+
+    public static final String GENERATION_KEY = "search:generation";
+
+    private static final String RESULT_PREFIX = "search:result:";
+
+    private final GenericCacheService cacheService;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final long settleMillis;
+    private final Clock clock;
+
+    private volatile long observedGeneration = -1;
+    private volatile long observedAtMillis;
+
+    @Autowired
+    public SearchResultCache(GenericCacheService cacheService,
+                             MeterRegistry meterRegistry,
+                             @Value("${search.cache.ttl:60s}") Duration ttl,
+                             @Value("${search.cache.settle:1s}") Duration settle) {
+        this(cacheService, meterRegistry, ttl, settle, Clock.systemUTC());
+    }
+
+    SearchResultCache(GenericCacheService cacheService, MeterRegistry meterRegistry,
+                      Duration ttl, Duration settle, Clock clock) {
+        this.cacheService = cacheService;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.settleMillis = settle.toMillis();
+        this.clock = clock;
+    }
+
+    public List<ProductDocument> search(String type, Supplier<List<ProductDocument>> loader, Object... params) {
+        return lookup(type, CachedSearchResult.class, params, () -> {
+            List<ProductDocument> documents = loader.get();
+            return new CachedSearchResult(new ArrayList<>(documents), documents.size());
+        }).getDocuments();
+    }
+
+    public Page<ProductDocument> searchPage(String type, Pageable pageable,
+                                            Supplier<Page<ProductDocument>> loader, Object... params) {
+        Object[] withPage = new Object[params.length + 3];
+        System.arraycopy(params, 0, withPage, 0, params.length);
+        withPage[params.length] = pageable.getPageNumber();
+        withPage[params.length + 1] = pageable.getPageSize();
+        withPage[params.length + 2] = pageable.getSort();
+
+        CachedSearchResult result = lookup(type, CachedSearchResult.class, withPage, () -> {
+            Page<ProductDocument> page = loader.get();
+            return new CachedSearchResult(new ArrayList<>(page.getContent()), page.getTotalElements());
+        });
+        return new PageImpl<>(result.getDocuments(), pageable, result.getTotalHits());
+    }
+
+    /**
+     * Caches any Jackson-serializable search response, such as facet counts.
+     */
+    public <T> T get(String type, Class<T> valueType, Supplier<T> loader, Object... params) {
+        return lookup(type, valueType, params, loader);
+    }
+
+    /**
+     * Called after every write to the live index. Never throws, so a cache outage cannot fail
+     * the write that triggered it.
+     */
+    public void invalidate() {
+        try {
+            cacheService.incrementGeneration(GENERATION_KEY);
+        } catch (Exception e) {
+            log.warn("Failed to bump search generation: {}", e.getMessage());
+        }
+    }
+
+    private <T> T lookup(String type, Class<T> valueType, Object[] params, Supplier<T> loader) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            long generation = currentGeneration();
+            String key = generation < 0 ? null : RESULT_PREFIX + generation + ":" + type + ":" + fingerprint(params);
+
+            T cached = key == null ? null : read(key, valueType);
+            if (cached != null) {
+                outcome = "hit";
+                return cached;
+            }
+
+            T result = loader.get();
+            if (key != null && settled(generation)) {
+                write(key, result);
+                outcome = "miss";
+            } else {
+                outcome = "bypass";
+            }
+            return result;
+        } finally {
+            requestTimer(type, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer requestTimer(String type, String outcome) {
+        return requestTimers.computeIfAbsent(type + "|" + outcome, id -> Timer.builder("search.requests")
+                .description("Search requests by query type and cache outcome")
+                .tag("type", type)
+                .tag("cache", outcome)
+                .register(meterRegistry));
+    }
+
+    private long currentGeneration() {
+        try {
+            return cacheService.getGeneration(GENERATION_KEY);
+        } catch (Exception e) {
+            log.warn("Search generation unavailable, bypassing result cache: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private <T> T read(String key, Class<T> valueType) {
+        try {
+            return cacheService.getCachedObject(key, valueType);
+        } catch (Exception e) {
+            log.warn("Failed to read cached search result {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, Object result) {
+        try {
+            cacheService.populate(key, result, ttl);
+        } catch (Exception e) {
+            log.warn("Failed to cache search result {}: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean settled(long generation) {
+        long now = clock.millis();
+        if (generation != observedGeneration) {
+            observedGeneration = generation;
+            observedAtMillis = now;
+        }
+        return now - observedAtMillis >= settleMillis;
+    }
+
+    static String fingerprint(Object... params) {
+        StringBuilder normalized = new StringBuilder();
+        for (Object param : params) {
+            normalized.append(normalize(param)).append('\u001f');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalized.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(Object param) {
+        if (param == null) {
+            return "";
+        }
+        if (param instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        if (param instanceof String text) {
+            return text.strip().replaceAll("\\s+", " ");
+        }
+        return String.valueOf(param);
+    }
+}
@@ -1,50 +1,96 @@
 package com.edstem.product_catalog.service;
 
+import com.edstem.product_catalog.contract.FacetedSearchResult;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+import com.edstem.product_catalog.contract.ProductSearchPage;
+import com.edstem.product_catalog.contract.ReindexMode;
+import com.edstem.product_catalog.contract.ReindexStatus;
 import com.edstem.product_catalog.document.ProductDocument;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class SearchService {
 
     private final ElasticsearchService elasticsearchService;
-    private final ProductService productService;
+    private final ReindexService reindexService;
+    private final SearchResultCache searchResultCache;
+
+    @Value("${search.facets.cache-enabled:true}")
+    private boolean facetCacheEnabled;
 
     public List<ProductDocument> searchProducts(String q) {
-        return elasticsearchService.searchProducts(q);
+        return searchResultCache.search("query", () -> elasticsearchService.searchProducts(q), q);
     }
 
     public List<ProductDocument> searchByName(String name) {
-        return elasticsearchService.searchProductsByName(name);
+        return searchResultCache.search("name", () -> elasticsearchService.searchProductsByName(name), name);
     }
 
     public List<ProductDocument> searchByCategory(String category) {
-        return elasticsearchService.searchProductsByCategory(category);
+        return searchResultCache.search("category", () -> elasticsearchService.searchProductsByCategory(category), category);
     }
 
     public List<ProductDocument> searchByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return elasticsearchService.searchProductsByPriceRange(minPrice, maxPrice);
+        return searchResultCache.search("price",
+                () -> elasticsearchService.searchProductsByPriceRange(minPrice, maxPrice), minPrice, maxPrice);
     }
 
     public List<ProductDocument> fuzzySearch(String q) {
-        return elasticsearchService.fuzzySearch(q);
+        return searchResultCache.search("fuzzy", () -> elasticsearchService.fuzzySearch(q), q);
     }
 
     public List<ProductDocument> advancedSearch(String name, BigDecimal minPrice) {
-        return elasticsearchService.advancedSearch(name, minPrice);
+        return searchResultCache.search("advanced", () -> elasticsearchService.advancedSearch(name, minPrice), name, minPrice);
     }
 
     public Page<ProductDocument> paginatedSearch(String q, Pageable pageable) {
-        return elasticsearchService.searchProductsWithPagination(q, pageable);
+        return searchResultCache.searchPage("paginated", pageable,
+                () -> elasticsearchService.searchProductsWithPagination(q, pageable), q);
+    }
+
+    public Page<ProductDocument> search(ProductSearchCriteria criteria, Pageable pageable) {
+        return searchResultCache.searchPage("structured", pageable,
+                () -> elasticsearchService.searchProducts(criteria, pageable),
+                criteria.getText(), criteria.getCategory(), criteria.getMinPrice(), criteria.getMaxPrice(),
+                criteria.getInStock());
+    }
+
+    public FacetedSearchResult facetedSearch(ProductSearchCriteria criteria, Pageable pageable) {
+        if (!facetCacheEnabled) {
+            return elasticsearchService.facetedSearch(criteria, pageable);
+        }
+        return searchResultCache.get("faceted", FacetedSearchResult.class,
+                () -> elasticsearchService.facetedSearch(criteria, pageable),
+                criteria.getText(), criteria.getCategory(), criteria.getMinPrice(), criteria.getMaxPrice(),
+                criteria.getInStock(), pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+    }
+
+    public ProductSearchPage searchAfter(String q, String cursor, int size) {
+        return elasticsearchService.searchAfter(q, cursor, size);
+    }
+
+    public long exportProducts(String q, Consumer<ProductDocument> sink) {
+        return elasticsearchService.exportProducts(q, sink);
+    }
+
+    public ReindexStatus reindexAll() {
+        return reindexService.start();
+    }
+
+    public ReindexStatus reindexAll(ReindexMode mode) {
+        return mode == null ? reindexService.start() : reindexService.start(mode);
     }
 
-    public void reindexAll() {
-        productService.reindexAllProducts();
+    public ReindexStatus reindexStatus() {
+        return reindexService.status();
     }
 }
@@ -0,0 +1,79 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.StockUpdateResult;
+import com.edstem.product_catalog.model.ProductOutbox;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
+import com.edstem.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Hot path for stock changes. Every reservation or adjustment is one conditional UPDATE, so
+ * concurrent requests serialize on the row lock and stock never goes below zero, without a
+ * read-modify-write or a full product save. The same UPDATE refuses a delta that would push
+ * stock past {@link Integer#MAX_VALUE}.
+ * <p>
+ * The UPDATE commits together with a stock-only outbox row, so the change survives a crash and
+ * reaches the cache and the search index through {@link com.edstem.product_catalog.kafka.OutboxRelay}
+ * like any other product change. The relay coalesces rows per product, reading the committed
+ * stock once per batch no matter how many changes a product saw, and leaves cached product pages
+ * to expire on their own TTL when a batch only changed stock.
+ */
+@Slf4j
+@Service
+public class StockService {
+
+    public static final String STOCK_FIELD = "stock";
+
+    private final ProductRepository productRepository;
+    private final ProductOutboxRepository outboxRepository;
+
+    private final Counter applied;
+    private final Counter rejected;
+
+    public StockService(ProductRepository productRepository,
+                        ProductOutboxRepository outboxRepository,
+                        MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.outboxRepository = outboxRepository;
+
+        this.applied = Counter.builder("stock.updates").tag("result", "applied").register(meterRegistry);
+        this.rejected = Counter.builder("stock.updates").tag("result", "rejected").register(meterRegistry);
+    }
+
+    @Transactional
+    public StockUpdateResult reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        return adjust(productId, -quantity);
+    }
+
+    @Transactional
+    public StockUpdateResult adjust(Long productId, int delta) {
+        if (delta == 0) {
+            throw new IllegalArgumentException("Delta must not be zero");
+        }
+        if (productRepository.adjustStock(productId, delta) == 1) {
+            outboxRepository.save(ProductOutbox.builder()
+                    .productId(productId)
+                    .eventType(ProductOutbox.EventType.UPSERT)
+                    .changedFields(STOCK_FIELD)
+                    .createdAt(Instant.now())
+                    .build());
+            applied.increment();
+            return StockUpdateResult.APPLIED;
+        }
+
+        rejected.increment();
+        if (!productRepository.existsById(productId)) {
+            return StockUpdateResult.NOT_FOUND;
+        }
+        return delta > 0 ? StockUpdateResult.STOCK_LIMIT_EXCEEDED : StockUpdateResult.INSUFFICIENT_STOCK;
+    }
+}
@@ -0,0 +1,104 @@
+package com.edstem.product_catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead suggestions, fronted by a small in-process cache keyed on the normalized prefix.
+ * Keystroke traffic is dominated by a few short prefixes, which Caffeine's frequency-based
+ * admission keeps resident. Each entry always holds {@code max-size} names so that every
+ * requested size is served from the same entry.
+ */
+@Slf4j
+@Service
+public class SuggestService {
+
+    private final ElasticsearchService elasticsearchService;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, List<String>> prefixCache;
+    private final SingleFlight<String, List<String>> suggestLoads = new SingleFlight<>();
+    private final int maxSize;
+    private final Map<String, Timer> requestTimers;
+
+    public SuggestService(ElasticsearchService elasticsearchService,
+                          MeterRegistry meterRegistry,
+                          @Value("${search.suggest.max-size:10}") int maxSize,
+                          @Value("${search.suggest.cache.maximum-size:5000}") long cacheSize,
+                          @Value("${search.suggest.cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.elasticsearchService = elasticsearchService;
+        this.meterRegistry = meterRegistry;
+        this.maxSize = maxSize;
+        this.prefixCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, prefixCache, "suggest", Tags.of("tier", "l1"));
+        this.requestTimers = Map.of(
+                "hit", requestTimer("hit"),
+                "miss", requestTimer("miss"),
+                "error", requestTimer("error"));
+    }
+
+    public List<String> suggest(String prefix, int size) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        int limit = Math.max(1, Math.min(size, maxSize));
+
+        long start = System.nanoTime();
+        String outcome = "hit";
+        try {
+            List<String> names = prefixCache.getIfPresent(normalized);
+            if (names == null) {
+                outcome = "miss";
+                names = suggestLoads.execute(normalized, () -> load(normalized));
+            }
+            return names.size() <= limit ? names : names.subList(0, limit);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            requestTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("search.requests")
+                .description("Search requests by query type and cache outcome")
+                .tag("type", "suggest")
+                .tag("cache", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads outside the cache rather than through {@code Cache.get(key, loader)}, whose loader runs
+     * inside a map bin lock and would pin a virtual thread's carrier for the whole request.
+     */
+    private List<String> load(String prefix) {
+        List<String> names = List.copyOf(elasticsearchService.suggestNames(prefix, maxSize));
+        prefixCache.put(prefix, names);
+        return names;
+    }
+
+    static String normalize(String prefix) {
+        if (prefix == null) {
+            return "";
+        }
+        return prefix.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
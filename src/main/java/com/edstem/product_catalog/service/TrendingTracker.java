@@ -0,0 +1,258 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.TrendingProduct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sliding-window "trending now" over product views. Views land in a ring of one-minute buckets,
+ * each holding a count-min sketch and a bounded set of candidate products, so memory is fixed
+ * by configuration and independent of catalog size. Once a second the top products for every
+ * supported window are computed into an immutable snapshot, and reads just return from it.
+ * <p>
+ * The tracker is local to the instance and sees every view, not a partition's share of them:
+ * {@link com.edstem.product_catalog.kafka.TrendingViewConsumer} reads the whole topic in a group
+ * of its own. Replicas therefore agree without a shared store, at the cost of each consuming
+ * the full view stream, which the fixed-size sketches keep cheap.
+ */
+@Service
+public class TrendingTracker {
+
+    public static final List<Integer> WINDOWS_MINUTES = List.of(5, 15, 60);
+
+    private static final int RING_SIZE = 60;
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final Clock clock;
+    private final int topK;
+    private final int maxCandidates;
+    private final int sketchDepth;
+    private final int sketchWidth;
+
+    private final AtomicReferenceArray<Bucket> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private volatile Map<Integer, List<TrendingProduct>> snapshot = Map.of();
+
+    @Autowired
+    public TrendingTracker(@Value("${trending.top-k:50}") int topK,
+                           @Value("${trending.candidates-per-minute:1000}") int maxCandidates,
+                           @Value("${trending.sketch.depth:4}") int sketchDepth,
+                           @Value("${trending.sketch.width:2048}") int sketchWidth) {
+        this(Clock.systemUTC(), topK, maxCandidates, sketchDepth, sketchWidth);
+    }
+
+    TrendingTracker(Clock clock, int topK, int maxCandidates, int sketchDepth, int sketchWidth) {
+        this.clock = clock;
+        this.topK = topK;
+        this.maxCandidates = maxCandidates;
+        this.sketchDepth = sketchDepth;
+        this.sketchWidth = sketchWidth;
+    }
+
+    public void record(Long productId) {
+        record(productId, clock.millis());
+    }
+
+    /**
+     * Counts a view in the minute it happened, so replayed views land in their own buckets. Views
+     * older than the ring are dropped and future timestamps count as now.
+     */
+    public void record(Long productId, long viewedAtMillis) {
+        long current = currentMinute();
+        long minute = Math.min(viewedAtMillis / MINUTE_MILLIS, current);
+        if (minute <= current - RING_SIZE) {
+            return;
+        }
+        Bucket bucket = bucketFor(minute);
+        long estimate = bucket.sketch.increment(productId);
+        bucket.offerCandidate(productId, estimate);
+    }
+
+    int candidateCount() {
+        Bucket bucket = ring.get(slot(currentMinute()));
+        return bucket == null ? 0 : bucket.candidates.size();
+    }
+
+    public List<TrendingProduct> trending(int windowMinutes, int limit) {
+        if (!WINDOWS_MINUTES.contains(windowMinutes)) {
+            throw new IllegalArgumentException("Unsupported window: " + windowMinutes + " minutes");
+        }
+        List<TrendingProduct> top = snapshot.getOrDefault(windowMinutes, List.of());
+        return top.size() <= limit ? top : top.subList(0, Math.max(limit, 0));
+    }
+
+    @Scheduled(fixedRateString = "${trending.refresh-interval-ms:1000}")
+    public void refresh() {
+        long minute = currentMinute();
+        Map<Integer, List<TrendingProduct>> next = new HashMap<>();
+        for (int window : WINDOWS_MINUTES) {
+            next.put(window, computeTopK(minute, window));
+        }
+        snapshot = Map.copyOf(next);
+    }
+
+    private List<TrendingProduct> computeTopK(long currentMinute, int windowMinutes) {
+        List<Bucket> buckets = new ArrayList<>(windowMinutes);
+        for (long minute = currentMinute - windowMinutes + 1; minute <= currentMinute; minute++) {
+            Bucket bucket = ring.get(slot(minute));
+            if (bucket != null && bucket.minute == minute) {
+                bucket.pruneCandidates(maxCandidates);
+                buckets.add(bucket);
+            }
+        }
+
+        Set<Long> candidates = new HashSet<>();
+        buckets.forEach(bucket -> candidates.addAll(bucket.candidates.keySet()));
+
+        PriorityQueue<TrendingProduct> heap = new PriorityQueue<>(Comparator.comparingLong(TrendingProduct::getViews));
+        for (Long productId : candidates) {
+            long views = 0;
+            for (Bucket bucket : buckets) {
+                views += bucket.sketch.estimate(productId);
+            }
+            if (heap.size() < topK) {
+                heap.add(new TrendingProduct(productId, views));
+            } else if (views > heap.peek().getViews()) {
+                heap.poll();
+                heap.add(new TrendingProduct(productId, views));
+            }
+        }
+
+        List<TrendingProduct> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingLong(TrendingProduct::getViews).reversed()
+                .thenComparing(TrendingProduct::getProductId));
+        return List.copyOf(top);
+    }
+
+    private Bucket bucketFor(long minute) {
+        int slot = slot(minute);
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.minute >= minute) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(minute, sketchDepth, sketchWidth);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private long currentMinute() {
+        return clock.millis() / MINUTE_MILLIS;
+    }
+
+    private static int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) RING_SIZE);
+    }
+
+    private final class Bucket {
+        private final long minute;
+        private final CountMinSketch sketch;
+        private final Map<Long, Boolean> candidates = new ConcurrentHashMap<>();
+        private volatile long admissionThreshold;
+        private final ReentrantLock pruneLock = new ReentrantLock();
+
+        private Bucket(long minute, int depth, int width) {
+            this.minute = minute;
+            this.sketch = new CountMinSketch(depth, width);
+        }
+
+        private void offerCandidate(Long productId, long estimate) {
+            if (candidates.containsKey(productId)) {
+                return;
+            }
+            // Admit freely up to twice the limit, then only products heavier than the last prune
+            // kept. A bucket that has never been pruned has no bar yet, so set one now.
+            if (candidates.size() >= 2 * maxCandidates) {
+                if (admissionThreshold == 0) {
+                    pruneCandidates(maxCandidates);
+                }
+                if (estimate <= admissionThreshold) {
+                    return;
+                }
+            }
+            candidates.put(productId, Boolean.TRUE);
+        }
+
+        /** Guarded by a lock rather than {@code synchronized} so virtual threads waiting on it unmount. */
+        private void pruneCandidates(int limit) {
+            pruneLock.lock();
+            try {
+                if (limit <= 0 || candidates.size() <= limit) {
+                    return;
+                }
+                List<long[]> scored = new ArrayList<>(candidates.size());
+                candidates.keySet().forEach(id -> scored.add(new long[]{id, sketch.estimate(id)}));
+                scored.sort((a, b) -> Long.compare(b[1], a[1]));
+                for (int i = limit; i < scored.size(); i++) {
+                    candidates.remove(scored.get(i)[0]);
+                }
+                admissionThreshold = scored.get(limit - 1)[1];
+            } finally {
+                pruneLock.unlock();
+            }
+        }
+    }
+
+    static final class CountMinSketch {
+        private final int depth;
+        private final int width;
+        private final AtomicLongArray counts;
+
+        CountMinSketch(int depth, int width) {
+            this.depth = depth;
+            this.width = width;
+            this.counts = new AtomicLongArray(depth * width);
+        }
+
+        long increment(long item) {
+            long hash = mix(item);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, counts.incrementAndGet(index(row, h1, h2)));
+            }
+            return min;
+        }
+
+        long estimate(long item) {
+            long hash = mix(item);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, counts.get(index(row, h1, h2)));
+            }
+            return min;
+        }
+
+        private int index(int row, int h1, int h2) {
+            int combined = h1 + row * h2;
+            return row * width + Math.floorMod(combined, width);
+        }
+
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
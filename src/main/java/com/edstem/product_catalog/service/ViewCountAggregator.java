@@ -0,0 +1,241 @@
+package com.edstem.product_catalog.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Counts product views in memory and writes only the accumulated deltas, as one JDBC batch and
+ * one Elasticsearch bulk update per flush. Recording a view is a map lookup plus a
+ * {@link LongAdder} increment, so consumer threads never contend on a shared counter.
+ * <p>
+ * Flushes run on a fixed delay and early once {@code maxPending} views are buffered; the early
+ * flush is handed to a background flusher, so consumer threads never wait for the database or
+ * Elasticsearch. Counters
+ * are kept between flushes; only once more than {@code maxTrackedProducts} are held are the
+ * ones idle for a whole flush removed, and those are drained once more on the next flush so an
+ * increment racing with the removal is not lost. Views buffered when the process dies are lost,
+ * which is acceptable for a popularity signal.
+ * <p>
+ * Postgres is written first and is the source of truth. Deltas Elasticsearch rejects are kept apart
+ * from the counters and retried against Elasticsearch alone on the following flushes, so they are
+ * never applied to Postgres twice; after {@value #MAX_SEARCH_ATTEMPTS} attempts they are dropped
+ * and the document catches up on its next full write.
+ */
+@Slf4j
+@Service
+public class ViewCountAggregator {
+
+    private static final String INCREMENT_SQL =
+            "UPDATE products SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?";
+    static final int MAX_SEARCH_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ElasticsearchService elasticsearchService;
+    private final long maxPending;
+    private final int maxTrackedProducts;
+
+    private final ConcurrentHashMap<Long, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<Long, LongAdder> retired = new HashMap<>();
+    private final Map<Long, SearchRetry> searchRetries = new HashMap<>();
+    private final ExecutorService earlyFlusher = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean();
+
+    private final Counter recordedViews;
+    private final Counter flushedViews;
+    private final Counter failedUpdates;
+    private final Timer flushTimer;
+
+    private record SearchRetry(long delta, int attempts) {
+    }
+
+    public ViewCountAggregator(JdbcTemplate jdbcTemplate,
+                               ElasticsearchService elasticsearchService,
+                               MeterRegistry meterRegistry,
+                               @Value("${views.flush.max-pending:50000}") long maxPending,
+                               @Value("${views.max-tracked-products:100000}") int maxTrackedProducts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.elasticsearchService = elasticsearchService;
+        this.maxPending = maxPending;
+        this.maxTrackedProducts = maxTrackedProducts;
+
+        this.recordedViews = Counter.builder("views.recorded").register(meterRegistry);
+        this.flushedViews = Counter.builder("views.flushed").register(meterRegistry);
+        this.failedUpdates = Counter.builder("views.flush.failures").register(meterRegistry);
+        this.flushTimer = Timer.builder("views.flush").register(meterRegistry);
+    }
+
+    public void record(Long productId) {
+        counters.computeIfAbsent(productId, id -> new LongAdder()).increment();
+        recordedViews.increment();
+        if (pending.incrementAndGet() >= maxPending) {
+            requestEarlyFlush();
+        }
+    }
+
+    /** At most one early flush is queued; views recorded while it runs do not queue another. */
+    private void requestEarlyFlush() {
+        if (earlyFlushRequested.compareAndSet(false, true)) {
+            earlyFlusher.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    earlyFlushRequested.set(false);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush.interval-ms:1000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            flushTimer.record(this::drainAndWrite);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drainAndWrite() {
+        Map<Long, Long> deltas = new TreeMap<>();
+        retired.forEach((id, adder) -> addDelta(deltas, id, adder.sumThenReset()));
+        retired.clear();
+
+        List<Long> idle = new ArrayList<>();
+        counters.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta == 0) {
+                idle.add(id);
+            } else {
+                addDelta(deltas, id, delta);
+            }
+        });
+        if (counters.size() > maxTrackedProducts) {
+            retireIdle(idle);
+        }
+
+        Map<Long, Long> searchDeltas = new TreeMap<>();
+        searchRetries.forEach((id, retry) -> searchDeltas.put(id, retry.delta()));
+        if (!deltas.isEmpty() && flushToDatabase(deltas)) {
+            deltas.forEach((id, delta) -> searchDeltas.merge(id, delta, Long::sum));
+        }
+        flushToSearch(searchDeltas);
+    }
+
+    private boolean flushToDatabase(Map<Long, Long> deltas) {
+        long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+        pending.addAndGet(-total);
+
+        try {
+            writeToDatabase(deltas);
+        } catch (Exception e) {
+            log.error("Failed to flush {} view counts to the database, keeping them for the next flush: {}",
+                    deltas.size(), e.getMessage());
+            deltas.forEach(this::restore);
+            return false;
+        }
+
+        flushedViews.increment(total);
+        log.debug("Flushed {} views for {} products", total, deltas.size());
+        return true;
+    }
+
+    private void flushToSearch(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Set<String> failedIds;
+        try {
+            failedIds = elasticsearchService.incrementViewCounts(deltas);
+        } catch (Exception e) {
+            log.error("Failed to flush {} view counts to Elasticsearch: {}", deltas.size(), e.getMessage());
+            failedIds = deltas.keySet().stream().map(String::valueOf).collect(Collectors.toSet());
+        }
+        failedUpdates.increment(failedIds.size());
+
+        Map<Long, SearchRetry> retries = new HashMap<>();
+        for (String failedId : failedIds) {
+            Long id = Long.valueOf(failedId);
+            Long delta = deltas.get(id);
+            if (delta == null) {
+                continue;
+            }
+            SearchRetry previous = searchRetries.get(id);
+            int attempts = previous == null ? 1 : previous.attempts() + 1;
+            if (attempts >= MAX_SEARCH_ATTEMPTS) {
+                log.warn("Dropping view count delta {} for product {} after {} failed Elasticsearch updates",
+                        delta, id, attempts);
+            } else {
+                retries.put(id, new SearchRetry(delta, attempts));
+            }
+        }
+        searchRetries.clear();
+        searchRetries.putAll(retries);
+    }
+
+    private void retireIdle(List<Long> idle) {
+        for (Long id : idle) {
+            LongAdder adder = counters.get(id);
+            if (adder != null && counters.remove(id, adder)) {
+                retired.put(id, adder);
+            }
+        }
+    }
+
+    private void writeToDatabase(Map<Long, Long> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> args.add(new Object[]{delta, id}));
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+    }
+
+    private void restore(Long productId, Long delta) {
+        counters.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+        pending.addAndGet(delta);
+    }
+
+    private static void addDelta(Map<Long, Long> deltas, Long productId, long delta) {
+        if (delta != 0) {
+            deltas.merge(productId, delta, Long::sum);
+        }
+    }
+
+    long pendingViews() {
+        return pending.get();
+    }
+
+    int pendingSearchRetries() {
+        return searchRetries.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        earlyFlusher.shutdown();
+        flush();
+    }
+}
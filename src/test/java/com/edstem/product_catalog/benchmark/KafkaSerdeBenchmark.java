@@ -0,0 +1,120 @@
+package com.edstem.product_catalog.benchmark;
+
+import com.edstem.product_catalog.codec.CatalogAvroDeserializer;
+import com.edstem.product_catalog.codec.CatalogAvroSerializer;
+import com.edstem.product_catalog.contract.ProductDTO;
+import com.edstem.product_catalog.event.ProductViewEvent;
+import com.edstem.product_catalog.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value serdes for the catalog's message types. {@code json} is the Spring Kafka JSON serde
+ * the topics used before: the producer adds type headers and the consumer resolves the type from
+ * them. {@code avro} is {@link CatalogAvroSerializer} and {@link CatalogAvroDeserializer}. The
+ * payload size per message is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaSerdeBenchmark {
+
+    private static final String TOPIC = "product-topic";
+
+    @Param({"json", "avro"})
+    public String format;
+
+    @Param({"product", "productDto", "viewEvent"})
+    public String message;
+
+    private Serializer<Object> serializer;
+    private Deserializer<Object> deserializer;
+    private Object value;
+    private RecordHeaders headers;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>(objectMapper);
+        jsonDeserializer.addTrustedPackages("*");
+        if ("avro".equals(format)) {
+            serializer = new CatalogAvroSerializer();
+            deserializer = new CatalogAvroDeserializer<>(Object.class, jsonDeserializer);
+        } else {
+            serializer = new JsonSerializer<>(objectMapper);
+            deserializer = jsonDeserializer;
+        }
+        serializer.configure(Map.of(), false);
+        deserializer.configure(Map.of(), false);
+
+        value = switch (message) {
+            case "product" -> Product.builder()
+                    .id(1042L)
+                    .name("Logitech Wireless Mouse M185")
+                    .description("Compact wireless mouse with a 12-month battery life")
+                    .category("Electronics")
+                    .price(new BigDecimal("19.99"))
+                    .stock(250)
+                    .viewCount(18_734L)
+                    .build();
+            case "productDto" -> ProductDTO.builder()
+                    .name("Logitech Wireless Mouse M185")
+                    .description("Compact wireless mouse with a 12-month battery life")
+                    .category("Electronics")
+                    .price(new BigDecimal("19.99"))
+                    .stock(250)
+                    .build();
+            default -> ProductViewEvent.builder()
+                    .productId(1042L)
+                    .userId("user-58213")
+                    .viewedAt(LocalDateTime.of(2024, 5, 1, 12, 30, 15))
+                    .source("web")
+                    .build();
+        };
+        headers = new RecordHeaders();
+        bytes = serializer.serialize(TOPIC, headers, value);
+        System.out.printf("%n%s %s payload: %d bytes%n", format, message, bytes.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, headers, bytes);
+    }
+}
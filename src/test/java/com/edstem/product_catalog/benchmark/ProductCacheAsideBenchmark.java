@@ -0,0 +1,119 @@
+package com.edstem.product_catalog.benchmark;
+
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.repository.ProductRepository;
+import com.edstem.product_catalog.service.CacheInvalidationBroadcaster;
+import com.edstem.product_catalog.service.GenericCacheService;
+import com.edstem.product_catalog.service.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#getProductById} against in-memory stand-ins for Redis and the
+ * repository, so the numbers are the cost of the cache-aside logic itself: near-cache lookup,
+ * fallback to the remote tier, single-flight and repopulation. Network and database time are
+ * deliberately absent. The redis and database cases include the in-memory eviction that forces
+ * the miss; it is done inline because a per-invocation setup would dwarf the operation itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductCacheAsideBenchmark {
+
+    private static final String KEY = ProductService.PRODUCT_CACHE_PREFIX + 1;
+
+    /** near: L1 hit. redis: L1 miss, L2 hit. database: miss in both tiers. */
+    @Param({"near", "redis", "database"})
+    public String tier;
+
+    private final Map<String, Object> redis = new ConcurrentHashMap<>();
+    private Cache<String, Object> nearCache;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Product1")
+                .description("Description for product 1")
+                .category("Electronics")
+                .price(BigDecimal.valueOf(99.99))
+                .stock(100)
+                .build();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        nearCache = Caffeine.newBuilder().maximumSize(10_000).build();
+        CacheInvalidationBroadcaster broadcaster =
+                new CacheInvalidationBroadcaster(null, nearCache, meterRegistry, Integer.MAX_VALUE);
+        GenericCacheService cacheService =
+                new GenericCacheService(inMemoryRedis(redis), nearCache, broadcaster, meterRegistry);
+        productService = new ProductService(inMemoryRepository(product), cacheService, null, meterRegistry);
+
+        productService.getProductById(1L);
+    }
+
+    @Benchmark
+    public Product getProductById() {
+        if (!"near".equals(tier)) {
+            nearCache.invalidate(KEY);
+        }
+        if ("database".equals(tier)) {
+            redis.remove(KEY);
+        }
+        return productService.getProductById(1L);
+    }
+
+    private static RedisTemplate<String, Object> inMemoryRedis(Map<String, Object> store) {
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, Object> values = (ValueOperations<String, Object>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(), new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> store.get((String) args[0]);
+                    case "set" -> store.put((String) args[0], args[1]);
+                    case "multiGet" -> ((Collection<?>) args[0]).stream().map(store::get).toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new RedisTemplate<>() {
+            @Override
+            public ValueOperations<String, Object> opsForValue() {
+                return values;
+            }
+        };
+    }
+
+    private static ProductRepository inMemoryRepository(Product product) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(product).filter(p -> p.getId().equals(args[0]));
+                    case "findAllById" -> List.of(product);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
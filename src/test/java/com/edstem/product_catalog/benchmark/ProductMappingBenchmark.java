@@ -0,0 +1,51 @@
+package com.edstem.product_catalog.benchmark;
+
+import com.edstem.product_catalog.contract.ProductDTO;
+import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-document and entity-to-DTO mapping, which run once per indexed record and per
+ * Kafka update respectively.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    private final Product product = Product.builder()
+            .id(42L)
+            .name("Logitech Wireless Mouse M185")
+            .description("Compact wireless mouse with a 12-month battery life")
+            .category("Electronics")
+            .price(new BigDecimal("19.99"))
+            .stock(250)
+            .viewCount(1_337L)
+            .build();
+
+    @Benchmark
+    public ProductDocument fromProduct() {
+        return ProductDocument.fromProduct(product);
+    }
+
+    @Benchmark
+    public ProductDTO toDto() {
+        return ProductService.toDto(product);
+    }
+}
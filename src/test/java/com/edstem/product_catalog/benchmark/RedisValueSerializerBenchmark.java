@@ -0,0 +1,94 @@
+package com.edstem.product_catalog.benchmark;
+
+import com.edstem.product_catalog.codec.VersionedRedisSerializer;
+import com.edstem.product_catalog.contract.CachedSearchResult;
+import com.edstem.product_catalog.contract.ProductPage;
+import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.model.Product;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisValueSerializerBenchmark {
+
+    @Param({"json", "binary", "binary-lz4"})
+    public String format;
+
+    @Param({"product", "page", "search"})
+    public String shape;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        // Same JSON setup as GenericRedisConfig.redisValueSerializer().
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        serializer = switch (format) {
+            case "binary" -> new VersionedRedisSerializer(json, VersionedRedisSerializer.Format.BINARY, false, 0);
+            case "binary-lz4" -> new VersionedRedisSerializer(json, VersionedRedisSerializer.Format.BINARY, true, 512);
+            default -> json;
+        };
+
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            products.add(product(id));
+        }
+        value = switch (shape) {
+            case "page" -> ProductPage.builder().items(products).nextCursor("NTA").build();
+            case "search" -> new CachedSearchResult(products.stream()
+                    .map(ProductDocument::fromProduct)
+                    .collect(Collectors.toCollection(ArrayList::new)), products.size());
+            default -> product(1L);
+        };
+
+        bytes = serializer.serialize(value);
+        System.out.printf("%n%s/%s payload: %d bytes%n", format, shape, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    private static Product product(long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product" + id)
+                .description("Description for product " + id)
+                .category(id % 2 == 0 ? "Electronics" : "Books")
+                .price(BigDecimal.valueOf(99.99 + id * 10))
+                .stock((int) (100 - id))
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.edstem.product_catalog.benchmark;
+
+import com.edstem.product_catalog.service.ElasticsearchService;
+import com.edstem.product_catalog.service.ViewCountAggregator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ViewCountAggregator#record} from eight consumer threads, with no-op stand-ins for the
+ * database and Elasticsearch so the numbers are the cost of counting plus the early flushes it
+ * triggers every {@code views.flush.max-pending} views. {@code products} is how many distinct
+ * ids the views spread over: few means hot counters, many means mostly cold map lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ViewCountAggregatorBenchmark {
+
+    @Param({"100", "100000"})
+    public int products;
+
+    private ViewCountAggregator aggregator;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                return new int[batchArgs.size()];
+            }
+        };
+        ElasticsearchService elasticsearchService = new ElasticsearchService(null, null, null, null, meterRegistry) {
+            @Override
+            public Set<String> incrementViewCounts(Map<Long, Long> deltas) {
+                return Set.of();
+            }
+        };
+        aggregator = new ViewCountAggregator(jdbcTemplate, elasticsearchService, meterRegistry, 50_000, 100_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        aggregator.shutdown();
+    }
+
+    @Benchmark
+    public void record() {
+        aggregator.record(ThreadLocalRandom.current().nextLong(products));
+    }
+}
@@ -0,0 +1,167 @@
+package com.edstem.product_catalog.codec;
+
+import com.edstem.product_catalog.contract.ProductDTO;
+import com.edstem.product_catalog.event.ProductViewEvent;
+import com.edstem.product_catalog.model.Product;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogAvroSerdeTest {
+
+    private static final String TOPIC = "product-topic";
+
+    private CatalogAvroSerializer serializer;
+    private CatalogAvroDeserializer<Object> deserializer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new CatalogAvroSerializer();
+        serializer.configure(Map.of(), false);
+        JsonDeserializer<Object> json = new JsonDeserializer<>();
+        json.addTrustedPackages("com.edstem.product_catalog.model", "com.edstem.product_catalog.contract");
+        deserializer = new CatalogAvroDeserializer<>(Object.class, json);
+        deserializer.configure(Map.of(), false);
+
+        product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .description("A sample product")
+                .category("Electronics")
+                .price(new BigDecimal("99.99"))
+                .stock(10)
+                .viewCount(42L)
+                .build();
+    }
+
+    @Test
+    void catalogTypes_ShouldRoundTripAsAvroWithoutTypeHeaders() {
+        ProductDTO dto = ProductDTO.builder().name("Dto").category("Books").price(new BigDecimal("5.00")).stock(3).build();
+        ProductViewEvent event = ProductViewEvent.builder()
+                .productId(7L).userId("user-1").viewedAt(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000))
+                .source("web").build();
+
+        for (Object value : List.of(product, dto, event)) {
+            RecordHeaders headers = new RecordHeaders();
+            byte[] bytes = serializer.serialize(TOPIC, headers, value);
+
+            assertTrue(CatalogAvroCodec.isAvro(bytes));
+            assertFalse(headers.iterator().hasNext());
+            assertEquals(value, deserializer.deserialize(TOPIC, headers, bytes));
+        }
+    }
+
+    @Test
+    void product_WithNullFields_ShouldRoundTrip() {
+        Product sparse = Product.builder().id(2L).build();
+
+        assertEquals(sparse, deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, sparse)));
+    }
+
+    @Test
+    void product_WithTimestamps_ShouldRoundTripToTheMicrosecond() {
+        Product dated = product.toBuilder()
+                .createdAt(Instant.parse("2024-05-01T12:30:15.123456Z"))
+                .updatedAt(Instant.parse("2024-06-02T08:00:00Z"))
+                .build();
+
+        assertEquals(dated, deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, dated)));
+    }
+
+    @Test
+    void product_ShouldBeSmallerThanJson() {
+        byte[] avro = serializer.serialize(TOPIC, new RecordHeaders(), product);
+        byte[] json = new JsonSerializer<>().serialize(TOPIC, new RecordHeaders(), product);
+
+        assertTrue(avro.length < json.length, avro.length + " vs " + json.length + " bytes");
+    }
+
+    @Test
+    void deserialize_ShouldReadJsonWrittenBeforeTheSwitch() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json = new JsonSerializer<>().serialize(TOPIC, headers, product);
+
+        assertEquals(product, deserializer.deserialize(TOPIC, headers, json));
+    }
+
+    @Test
+    void tombstonesAndRawBytes_ShouldPassThrough() {
+        byte[] raw = {1, 2, 3};
+
+        assertNull(serializer.serialize(TOPIC, null));
+        assertNull(deserializer.deserialize(TOPIC, null));
+        assertSame(raw, serializer.serialize(TOPIC, raw));
+    }
+
+    @Test
+    void deserialize_ShouldRejectRecordOfAnotherType() {
+        CatalogAvroDeserializer<ProductViewEvent> views =
+                new CatalogAvroDeserializer<>(ProductViewEvent.class, new JsonDeserializer<>(ProductViewEvent.class, false));
+        views.configure(Map.of(), false);
+
+        byte[] bytes = serializer.serialize(TOPIC, product);
+
+        assertThrows(SerializationException.class, () -> views.deserialize("product-views", bytes));
+    }
+
+    @Test
+    void deserialize_ShouldResolveOlderWriterSchemaToLatest() {
+        FileSchemaRegistry registry = new FileSchemaRegistry();
+        FileSchemaRegistry current = FileSchemaRegistry.load(FileSchemaRegistry.DEFAULT_LOCATIONS);
+        Schema v0 = SchemaBuilder.record("Product").namespace("com.edstem.product_catalog.avro").fields()
+                .optionalLong("id")
+                .optionalString("name")
+                .endRecord();
+        registry.register("product", 0, v0);
+        for (String subject : List.of("product", "product-dto", "product-view-event")) {
+            FileSchemaRegistry.SchemaVersion latest = current.latest(subject);
+            registry.register(subject, latest.version(), latest.schema());
+        }
+        CatalogAvroDeserializer<Object> evolving = new CatalogAvroDeserializer<>(Object.class,
+                new JsonDeserializer<>(), new CatalogAvroCodec(registry, AvroMapping.CATALOG));
+
+        GenericData.Record old = new GenericData.Record(v0);
+        old.put("id", 3L);
+        old.put("name", "Old writer");
+        byte[] bytes = encode(v0, old);
+
+        assertEquals(Product.builder().id(3L).name("Old writer").build(), evolving.deserialize(TOPIC, bytes));
+    }
+
+    @Test
+    void deserialize_ShouldRejectUnknownSchema() {
+        Schema unknown = SchemaBuilder.record("Unknown").fields().requiredLong("id").endRecord();
+        GenericData.Record record = new GenericData.Record(unknown);
+        record.put("id", 1L);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, encode(unknown, record)));
+    }
+
+    private static byte[] encode(Schema schema, GenericData.Record record) {
+        try {
+            ByteBuffer buffer = new BinaryMessageEncoder<GenericData.Record>(GenericData.get(), schema).encode(record);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
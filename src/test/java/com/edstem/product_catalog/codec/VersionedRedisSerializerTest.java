@@ -0,0 +1,135 @@
+package com.edstem.product_catalog.codec;
+
+import com.edstem.product_catalog.contract.ProductPage;
+import com.edstem.product_catalog.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedRedisSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private VersionedRedisSerializer binarySerializer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        binarySerializer = new VersionedRedisSerializer(jsonSerializer, VersionedRedisSerializer.Format.BINARY, false, 1024);
+        product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .description("A sample product")
+                .category("Electronics")
+                .price(new BigDecimal("99.99"))
+                .stock(10)
+                .viewCount(42L)
+                .build();
+    }
+
+    @Test
+    void product_ShouldRoundTripInBinaryFormat() {
+        byte[] bytes = binarySerializer.serialize(product);
+
+        assertEquals(VersionedRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(product, binarySerializer.deserialize(bytes));
+    }
+
+    @Test
+    void product_WithNullFields_ShouldRoundTrip() {
+        Product sparse = Product.builder().id(2L).build();
+
+        assertEquals(sparse, binarySerializer.deserialize(binarySerializer.serialize(sparse)));
+    }
+
+    @Test
+    void binaryFormat_WithTimestamps_ShouldRoundTrip() {
+        Product dated = product.toBuilder()
+                .createdAt(Instant.parse("2024-05-01T12:30:15.123456789Z"))
+                .updatedAt(Instant.parse("2024-06-02T08:00:00Z"))
+                .build();
+
+        assertEquals(dated, binarySerializer.deserialize(binarySerializer.serialize(dated)));
+    }
+
+    @Test
+    void binaryFormat_ShouldBeSmallerThanJson() {
+        assertTrue(binarySerializer.serialize(product).length < jsonSerializer.serialize(product).length);
+    }
+
+    @Test
+    void productPage_ShouldRoundTrip() {
+        ProductPage page = ProductPage.builder()
+                .items(new ArrayList<>(List.of(product, product.toBuilder().id(2L).build())))
+                .nextCursor("Mg")
+                .build();
+
+        assertEquals(page, binarySerializer.deserialize(binarySerializer.serialize(page)));
+    }
+
+    @Test
+    void productList_ShouldRoundTripWithCompression() {
+        VersionedRedisSerializer compressing =
+                new VersionedRedisSerializer(jsonSerializer, VersionedRedisSerializer.Format.BINARY, true, 64);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            products.add(product.toBuilder().id(id).build());
+        }
+
+        byte[] compressed = compressing.serialize(products);
+
+        assertTrue(compressed.length < binarySerializer.serialize(products).length);
+        assertEquals(products, compressing.deserialize(compressed));
+        assertEquals(products, binarySerializer.deserialize(compressed));
+    }
+
+    @Test
+    void legacyJsonValue_ShouldStillBeReadable() {
+        byte[] legacy = jsonSerializer.serialize(product);
+
+        assertEquals(product, binarySerializer.deserialize(legacy));
+    }
+
+    @Test
+    void jsonFormat_ShouldReadBinaryValuesForRollback() {
+        VersionedRedisSerializer jsonFormat =
+                new VersionedRedisSerializer(jsonSerializer, VersionedRedisSerializer.Format.JSON, false, 1024);
+
+        byte[] written = jsonFormat.serialize(product);
+
+        assertNotEquals(VersionedRedisSerializer.MAGIC, written[0]);
+        assertEquals(product, jsonFormat.deserialize(binarySerializer.serialize(product)));
+    }
+
+    @Test
+    void unknownSchemaVersion_ShouldBeTreatedAsMiss() {
+        byte[] bytes = binarySerializer.serialize(product);
+        bytes[1] = (byte) (ProductBinaryCodec.SCHEMA_VERSION + 1);
+
+        assertNull(binarySerializer.deserialize(bytes));
+    }
+
+    @Test
+    void otherTypes_ShouldFallBackToJson() {
+        Map<String, String> value = new HashMap<>(Map.of("key", "value"));
+
+        byte[] bytes = binarySerializer.serialize(value);
+
+        assertNotEquals(VersionedRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(value, binarySerializer.deserialize(bytes));
+    }
+
+    @Test
+    void generationCounter_WrittenByIncr_ShouldBeReadable() {
+        assertEquals(5, binarySerializer.deserialize("5".getBytes()));
+    }
+}
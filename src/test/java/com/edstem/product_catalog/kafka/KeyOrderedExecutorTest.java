@@ -0,0 +1,92 @@
+package com.edstem.product_catalog.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedExecutorTest {
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final KeyOrderedExecutor<String> executor = new KeyOrderedExecutor<>(workers);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void submit_ShouldRunTasksOfOneKeyInSubmissionOrder() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            last = executor.submit("1", () -> {
+                if (n % 7 == 0) {
+                    sleep(2);
+                }
+                order.add(n);
+            });
+        }
+
+        last.get(5, TimeUnit.SECONDS);
+        assertEquals(50, order.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void submit_ShouldNotHoldOtherKeysBehindASlowOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = executor.submit("1", () -> await(release));
+        CompletableFuture<Void> queuedBehindSlow = executor.submit("1", () -> { });
+
+        executor.submit("2", () -> { }).get(5, TimeUnit.SECONDS);
+
+        assertFalse(slow.isDone());
+        assertFalse(queuedBehindSlow.isDone());
+        release.countDown();
+        queuedBehindSlow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_ShouldRunSuccessorsOfAFailedTaskAndForgetIdleKeys() throws Exception {
+        CompletableFuture<Void> failed = executor.submit("1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Void> next = executor.submit("1", () -> { });
+
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(failed.isCompletedExceptionally());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.activeKeys() > 0 && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+        assertEquals(0, executor.activeKeys());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.edstem.product_catalog.kafka;
+
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.model.ProductOutbox;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
+import com.edstem.product_catalog.repository.ProductRepository;
+import com.edstem.product_catalog.service.GenericCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock private ProductOutboxRepository outboxRepository;
+    @Mock private ProductRepository productRepository;
+    @Mock private KafkaTemplate<String, Product> kafkaTemplate;
+    @Mock private GenericCacheService cacheService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Captor private ArgumentCaptor<ProducerRecord<String, Product>> sentRecords;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxRepository, productRepository, kafkaTemplate, cacheService,
+                transactionTemplate, meterRegistry, 10, Duration.ofSeconds(1));
+        lenient().when(outboxRepository.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+    }
+
+    @Test
+    void relayBatch_WhenAnotherInstanceHoldsTheLock_ShouldNotClaimRows() {
+        when(outboxRepository.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(false);
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(outboxRepository, never()).lockNextBatch(anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void relayBatch_WhenLockMovesToAnotherInstance_ShouldResetLag() {
+        when(outboxRepository.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true, false);
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(
+                row(1L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().createdAt(Instant.now().minusSeconds(5)).build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(Product.builder().id(1L).build()));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        relay.relayBatch();
+        assertTrue(meterRegistry.get("outbox.relay.lag").gauge().value() >= 5000);
+
+        relay.relayBatch();
+        assertEquals(0.0, meterRegistry.get("outbox.relay.lag").gauge().value());
+    }
+
+    @Test
+    void relayBatch_ShouldPublishLatestStateOncePerProductAndDeleteRows() {
+        Product product = Product.builder().id(1L).name("Current").build();
+        List<ProductOutbox> rows = List.of(
+                row(1L, 1L, ProductOutbox.EventType.UPSERT),
+                row(2L, 1L, ProductOutbox.EventType.UPSERT));
+        when(outboxRepository.lockNextBatch(10)).thenReturn(rows);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        assertEquals(2, relay.relayBatch());
+
+        ProducerRecord<String, Product> sent = sentRecord();
+        assertEquals("1", sent.key());
+        assertEquals(product, sent.value());
+        assertNull(sent.headers().lastHeader(OutboxRelay.CHANGED_FIELDS_HEADER));
+        verify(cacheService).cacheObjects(eq(Map.of("product:1", product)), any(Duration.class));
+        verify(cacheService).incrementGeneration("products:page:generation");
+        verify(outboxRepository).deleteAllInBatch(rows);
+        assertEquals(2.0, meterRegistry.get("outbox.relay.events").counter().count());
+    }
+
+    @Test
+    void relayBatch_WhenProductDeleted_ShouldSendTombstoneAndEvictCache() {
+        List<ProductOutbox> rows = List.of(row(1L, 7L, ProductOutbox.EventType.DELETE));
+        when(outboxRepository.lockNextBatch(10)).thenReturn(rows);
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        relay.relayBatch();
+
+        assertNull(sentRecord().value());
+        verify(cacheService).evictCache("product:7");
+        verify(outboxRepository).deleteAllInBatch(rows);
+    }
+
+    @Test
+    void relayBatch_WhenSendFails_ShouldKeepRows() {
+        Product product = Product.builder().id(1L).build();
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(row(1L, 1L, ProductOutbox.EventType.UPSERT)));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+
+        verify(outboxRepository, never()).deleteAllInBatch(any());
+        verifyNoInteractions(cacheService);
+    }
+
+    @Test
+    void relayBatch_WhenOnlySomeFieldsChanged_ShouldSendTheirUnionAsHeader() {
+        Product product = Product.builder().id(1L).price(BigDecimal.ONE).stock(3).build();
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(
+                row(1L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().changedFields("price").build(),
+                row(2L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().changedFields("stock,price").build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        relay.relayBatch();
+
+        Header header = sentRecord().headers().lastHeader(OutboxRelay.CHANGED_FIELDS_HEADER);
+        assertEquals("price,stock", new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void relayBatch_WhenOnlyStockChanged_ShouldCoalesceAndKeepCachedPages() {
+        Product product = Product.builder().id(1L).stock(4).build();
+        List<ProductOutbox> rows = List.of(
+                row(1L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().changedFields("stock").build(),
+                row(2L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().changedFields("stock").build(),
+                row(3L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().changedFields("stock").build());
+        when(outboxRepository.lockNextBatch(10)).thenReturn(rows);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        assertEquals(3, relay.relayBatch());
+
+        Header header = sentRecord().headers().lastHeader(OutboxRelay.CHANGED_FIELDS_HEADER);
+        assertEquals("stock", new String(header.value(), StandardCharsets.UTF_8));
+        verify(cacheService).cacheObjects(eq(Map.of("product:1", product)), any(Duration.class));
+        verify(cacheService, never()).incrementGeneration(any());
+        verify(outboxRepository).deleteAllInBatch(rows);
+    }
+
+    @Test
+    void relayBatch_WhenAnyRowIsFullUpdate_ShouldSendWithoutHeader() {
+        Product product = Product.builder().id(1L).build();
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of(
+                row(1L, 1L, ProductOutbox.EventType.UPSERT),
+                row(2L, 1L, ProductOutbox.EventType.UPSERT).toBuilder().changedFields("stock").build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(kafkaTemplate.send(anyRecord())).thenReturn(acked());
+
+        relay.relayBatch();
+
+        assertNull(sentRecord().headers().lastHeader(OutboxRelay.CHANGED_FIELDS_HEADER));
+    }
+
+    @Test
+    void relay_ShouldReportLagWithoutCountingTheTable() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(outboxRepository.lockNextBatch(10)).thenReturn(List.of());
+
+        relay.relay();
+
+        assertEquals(0.0, meterRegistry.get("outbox.relay.lag").gauge().value());
+        verify(outboxRepository, never()).count();
+    }
+
+    @Test
+    void refreshPending_ShouldReportPendingRows() {
+        when(outboxRepository.count()).thenReturn(3L);
+
+        relay.refreshPending();
+
+        assertEquals(3.0, meterRegistry.get("outbox.pending").gauge().value());
+    }
+
+    private static ProductOutbox row(long id, long productId, ProductOutbox.EventType type) {
+        return ProductOutbox.builder()
+                .id(id)
+                .productId(productId)
+                .eventType(type)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private ProducerRecord<String, Product> sentRecord() {
+        verify(kafkaTemplate).send(sentRecords.capture());
+        return sentRecords.getValue();
+    }
+
+    private static ProducerRecord<String, Product> anyRecord() {
+        return any();
+    }
+
+    private static CompletableFuture<SendResult<String, Product>> acked() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.edstem.product_catalog.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelProductConsumerTest {
+
+    @Mock private DeadLetterPublishingRecoverer deadLetterRecoverer;
+    @Mock private Acknowledgment first;
+    @Mock private Acknowledgment second;
+
+    private ParallelProductConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = spy(new ParallelProductConsumer(deadLetterRecoverer, new SimpleMeterRegistry(), 3,
+                Duration.ofMillis(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumer.shutdown();
+    }
+
+    @Test
+    void listen_ShouldAcknowledgeOtherKeysWhileOneIsSlow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ConsumerRecord<String, Object> slow = record(0, "1");
+        ConsumerRecord<String, Object> fast = record(1, "2");
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(consumer).process(slow);
+
+        consumer.listen(slow, first);
+        consumer.listen(fast, second);
+
+        verify(second, timeout(5000)).acknowledge();
+        verify(first, never()).acknowledge();
+        release.countDown();
+        verify(first, timeout(5000)).acknowledge();
+    }
+
+    @Test
+    void listen_ShouldProcessRecordsOfOneKeyInOffsetOrder() {
+        List<Long> processed = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            ConsumerRecord<?, ?> record = invocation.getArgument(0);
+            Thread.sleep(record.offset() == 0 ? 50 : 0);
+            return processed.add(record.offset());
+        }).when(consumer).process(any());
+
+        consumer.listen(record(0, "1"), first);
+        consumer.listen(record(1, "1"), second);
+
+        verify(second, timeout(5000)).acknowledge();
+        assertEquals(List.of(0L, 1L), processed);
+    }
+
+    @Test
+    void listen_ShouldDeadLetterAndAcknowledgeAfterRetriesAreExhausted() {
+        ConsumerRecord<String, Object> record = record(0, "1");
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }).when(consumer).process(record);
+
+        consumer.listen(record, first);
+
+        verify(first, timeout(5000)).acknowledge();
+        verify(deadLetterRecoverer).accept(eq(record), any(IllegalStateException.class));
+        assertEquals(3, attempts.get());
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, String key) {
+        return new ConsumerRecord<>("product-topic", 0, offset, key, null);
+    }
+}
@@ -0,0 +1,139 @@
+package com.edstem.product_catalog.kafka;
+
+import com.edstem.product_catalog.contract.ProductDTO;
+import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.service.ElasticsearchService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductElasticsearchConsumerTest {
+
+    @Mock private ElasticsearchService elasticsearchService;
+    @Mock private DeadLetterPublishingRecoverer deadLetterRecoverer;
+
+    @InjectMocks private ProductElasticsearchConsumer consumer;
+
+    @Test
+    void consume_ShouldSendOneBulkWithLatestStatePerProduct() {
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenReturn(Set.of());
+
+        consumer.consumeProductsForIndexing(List.of(
+                record(0, product(1L, 10)),
+                record(1, product(2L, 5)),
+                record(2, product(1L, 7))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductDocument>> docs = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchService, times(1)).bulkWrite(docs.capture(), eq(Map.of()), eq(List.of()));
+        assertEquals(2, docs.getValue().size());
+        assertEquals(7, docs.getValue().stream()
+                .filter(doc -> doc.getProductId() == 1L)
+                .findFirst().orElseThrow().getStock());
+        verifyNoInteractions(deadLetterRecoverer);
+    }
+
+    @Test
+    void consume_WhenItemsAreRejected_ShouldRouteOnlyThoseToDlt() {
+        ConsumerRecord<String, Object> rejected = record(1, product(2L, 5));
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenReturn(Set.of("2"));
+
+        consumer.consumeProductsForIndexing(List.of(record(0, product(1L, 10)), rejected));
+
+        verify(deadLetterRecoverer).accept(eq(rejected), any(Exception.class));
+        verifyNoMoreInteractions(deadLetterRecoverer);
+    }
+
+    @Test
+    void consume_WhenRecordHasNoProductId_ShouldRouteToDlt() {
+        ConsumerRecord<String, Object> dto = record(0, ProductDTO.builder().name("No id").build());
+
+        consumer.consumeProductsForIndexing(List.of(dto));
+
+        verify(deadLetterRecoverer).accept(eq(dto), any(Exception.class));
+        verifyNoInteractions(elasticsearchService);
+    }
+
+    @Test
+    void consume_WhenTombstoneFollowsUpdate_ShouldDeleteInTheSameBulk() {
+        ConsumerRecord<String, Object> tombstone = new ConsumerRecord<>("product-topic", 0, 1L, "1", null);
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenReturn(Set.of());
+
+        consumer.consumeProductsForIndexing(List.of(record(0, product(1L, 10)), record(1, product(2L, 3)), tombstone));
+
+        verify(elasticsearchService).bulkWrite(argThat(docs -> docs.size() == 1 && docs.get(0).getProductId() == 2L),
+                eq(Map.of()), eq(List.of("1")));
+        verifyNoMoreInteractions(elasticsearchService);
+    }
+
+    @Test
+    void consume_WhenDeleteIsRejected_ShouldRouteTombstoneToDlt() {
+        ConsumerRecord<String, Object> tombstone = new ConsumerRecord<>("product-topic", 0, 1L, "1", null);
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenReturn(Set.of("1"));
+
+        consumer.consumeProductsForIndexing(List.of(tombstone));
+
+        verify(deadLetterRecoverer).accept(eq(tombstone), any(Exception.class));
+    }
+
+    @Test
+    void consume_WhenRecordsCarryChangedFields_ShouldMergeThemIntoOnePartialUpdate() {
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenReturn(Set.of());
+
+        consumer.consumeProductsForIndexing(List.of(
+                withChangedFields(record(0, product(1L, 10)), "price"),
+                withChangedFields(record(1, product(1L, 7)), "stock")));
+
+        verify(elasticsearchService).bulkWrite(
+                argThat(docs -> docs.size() == 1 && docs.get(0).getStock() == 7),
+                eq(Map.of("1", Set.of("price", "stock"))), eq(List.of()));
+    }
+
+    @Test
+    void consume_WhenAnyRecordIsFullUpdate_ShouldReindexWholeDocument() {
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenReturn(Set.of());
+
+        consumer.consumeProductsForIndexing(List.of(
+                record(0, product(1L, 10)),
+                withChangedFields(record(1, product(1L, 7)), "stock")));
+
+        verify(elasticsearchService).bulkWrite(argThat(docs -> docs.size() == 1), eq(Map.of()), eq(List.of()));
+    }
+
+    @Test
+    void consume_WhenBulkRequestFails_ShouldPropagateForRetry() {
+        when(elasticsearchService.bulkWrite(anyList(), anyMap(), anyList())).thenThrow(new RuntimeException("cluster unavailable"));
+
+        assertThrows(RuntimeException.class,
+                () -> consumer.consumeProductsForIndexing(List.of(record(0, product(1L, 10)))));
+        verifyNoInteractions(deadLetterRecoverer);
+    }
+
+    private static ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>("product-topic", 0, offset, null, value);
+    }
+
+    private static ConsumerRecord<String, Object> withChangedFields(ConsumerRecord<String, Object> record, String fields) {
+        record.headers().add(OutboxRelay.CHANGED_FIELDS_HEADER, fields.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static Product product(long id, int stock) {
+        return Product.builder().id(id).name("Product" + id).stock(stock).build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.edstem.product_catalog.kafka;
+
+import com.edstem.product_catalog.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductProducerTest {
+
+    @Mock private KafkaTemplate<String, Product> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sendProduct_ShouldKeyByProductId() {
+        Product product = Product.builder().id(42L).name("Keyed").build();
+        when(kafkaTemplate.send("product-topic", "42", product)).thenReturn(new CompletableFuture<>());
+
+        producer(10).sendProduct(product);
+
+        verify(kafkaTemplate).send("product-topic", "42", product);
+        assertEquals(1, meterRegistry.get("kafka.producer.sends.in.flight").gauge().value());
+    }
+
+    @Test
+    void sendProduct_WithoutId_ShouldRejectWithoutSending() {
+        ProductProducer producer = producer(1);
+
+        assertThrows(IllegalArgumentException.class, () -> producer.sendProduct(Product.builder().name("No id").build()));
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(0, meterRegistry.get("kafka.producer.sends.in.flight").gauge().value());
+    }
+
+    @Test
+    void sendProduct_ShouldRejectWhenInFlightLimitReached() {
+        Product first = Product.builder().id(1L).build();
+        Product second = Product.builder().id(2L).build();
+        when(kafkaTemplate.send("product-topic", "1", first)).thenReturn(new CompletableFuture<>());
+        ProductProducer producer = producer(1);
+
+        producer.sendProduct(first);
+
+        assertThrows(IllegalStateException.class, () -> producer.sendProduct(second));
+        verify(kafkaTemplate, never()).send("product-topic", "2", second);
+    }
+
+    @Test
+    void sendProduct_ShouldReleaseCapacityAndCountFailureOnNack() {
+        Product first = Product.builder().id(1L).build();
+        Product second = Product.builder().id(2L).build();
+        CompletableFuture<SendResult<String, Product>> nacked = new CompletableFuture<>();
+        when(kafkaTemplate.send("product-topic", "1", first)).thenReturn(nacked);
+        when(kafkaTemplate.send("product-topic", "2", second)).thenReturn(new CompletableFuture<>());
+        ProductProducer producer = producer(1);
+
+        producer.sendProduct(first);
+        nacked.completeExceptionally(new RuntimeException("broker down"));
+        producer.sendProduct(second);
+
+        verify(kafkaTemplate).send("product-topic", "2", second);
+        assertEquals(1.0, meterRegistry.get("kafka.producer.sends.failed").counter().count());
+    }
+
+    @Test
+    void sendProducts_ShouldCompleteOnlyOnceEverySendIsAcknowledged() {
+        Product first = Product.builder().id(1L).build();
+        Product second = Product.builder().id(2L).build();
+        CompletableFuture<SendResult<String, Product>> firstAck = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, Product>> secondAck = new CompletableFuture<>();
+        when(kafkaTemplate.send("product-topic", "1", first)).thenReturn(firstAck);
+        when(kafkaTemplate.send("product-topic", "2", second)).thenReturn(secondAck);
+
+        CompletableFuture<Void> all = producer(10).sendProducts(List.of(first, second));
+
+        firstAck.complete(null);
+        assertFalse(all.isDone());
+        secondAck.complete(null);
+        assertTrue(all.isDone());
+        assertFalse(all.isCompletedExceptionally());
+    }
+
+    private ProductProducer producer(int maxInFlight) {
+        return new ProductProducer(kafkaTemplate, meterRegistry, maxInFlight, Duration.ofMillis(10),
+                DataSize.ofKilobytes(64));
+    }
+}
@@ -0,0 +1,194 @@
+package com.edstem.product_catalog.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop HTTP load generator: {@code concurrency} virtual-thread workers each pick an
+ * operation from a weighted mix, send it and immediately send the next. Latencies are kept as
+ * raw samples per worker and merged at the end, so percentiles are exact rather than bucketed.
+ * Samples taken during the warmup are discarded.
+ */
+class LoadDriver {
+
+    record Operation(String name, int weight, Supplier<HttpRequest> request) {
+    }
+
+    record OperationStats(String operation, long requests, long errors, double throughput,
+                          double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    record Report(String scenario, int concurrency, long durationMillis, long requests, long errors,
+                  double throughput, List<OperationStats> operations, Map<String, Long> counters) {
+
+        double errorRate() {
+            return requests == 0 ? 1.0 : (double) errors / requests;
+        }
+
+        Report withCounter(String name, long value) {
+            Map<String, Long> merged = new LinkedHashMap<>(counters);
+            merged.put(name, value);
+            return new Report(scenario, concurrency, durationMillis, requests, errors, throughput, operations, merged);
+        }
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    Report run(String scenario, List<Operation> mix, int concurrency, Duration warmup, Duration duration)
+            throws Exception {
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        List<Future<Map<String, Samples>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> work(mix, totalWeight, measureFrom, deadline)));
+            }
+        }
+
+        Map<String, Samples> merged = new LinkedHashMap<>();
+        mix.forEach(operation -> merged.put(operation.name(), new Samples()));
+        for (Future<Map<String, Samples>> worker : workers) {
+            worker.get().forEach((name, samples) -> merged.get(name).addAll(samples));
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        List<OperationStats> operations = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, Samples> entry : merged.entrySet()) {
+            Samples samples = entry.getValue();
+            long[] sorted = samples.sorted();
+            operations.add(new OperationStats(entry.getKey(), sorted.length, samples.errors, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6));
+            requests += sorted.length;
+            errors += samples.errors;
+        }
+        return new Report(scenario, concurrency, duration.toMillis(), requests, errors, requests / seconds,
+                operations, Map.of());
+    }
+
+    private Map<String, Samples> work(List<Operation> mix, int totalWeight, long measureFrom, long deadline) {
+        Map<String, Samples> samples = new HashMap<>();
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            Operation operation = pick(mix, totalWeight);
+            boolean failed;
+            try {
+                HttpResponse<Void> response = httpClient.send(operation.request().get(),
+                        HttpResponse.BodyHandlers.discarding());
+                failed = response.statusCode() >= 500;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long elapsed = System.nanoTime() - now;
+            if (now >= measureFrom) {
+                samples.computeIfAbsent(operation.name(), name -> new Samples()).add(elapsed, failed);
+            }
+        }
+        return samples;
+    }
+
+    private static Operation pick(List<Operation> mix, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : mix) {
+            roll -= operation.weight();
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    static void print(Report report) {
+        System.out.printf("%n=== %s: %d workers, %.0f req/s, %d errors ===%n",
+                report.scenario(), report.concurrency(), report.throughput(), report.errors());
+        System.out.printf("%-28s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (OperationStats stats : report.operations()) {
+            System.out.printf("%-28s %10.0f %10d %10.2f %10.2f %10.2f %10.2f%n", stats.operation(),
+                    stats.throughput(), stats.errors(), stats.p50Millis(), stats.p99Millis(),
+                    stats.p999Millis(), stats.maxMillis());
+        }
+        report.counters().forEach((name, value) -> System.out.printf("%-28s %10d%n", name, value));
+    }
+
+    /**
+     * Writes the report to {@code target/loadtest/<label>/<scenario>.json} so runs with different
+     * labels can be diffed side by side.
+     */
+    static void write(Report report, String label) {
+        Path file = Path.of("target", "loadtest", label, report.scenario() + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long elapsed, boolean failed) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = elapsed;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.edstem.product_catalog.loadtest;
+
+import com.edstem.product_catalog.codec.CatalogAvroSerializer;
+import com.edstem.product_catalog.event.ProductViewEvent;
+import com.edstem.product_catalog.loadtest.LoadDriver.Operation;
+import com.edstem.product_catalog.loadtest.LoadDriver.Report;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load test against the real application wired to containerized Postgres, Redis,
+ * Elasticsearch and Kafka, using the images from {@code compose.yaml}. Excluded from the default
+ * build; run it with {@code ./mvnw -Ploadtest test}. Once the images are pulled it needs no network.
+ * <p>
+ * Tunable with {@code -Dloadtest.concurrency}, {@code -Dloadtest.duration},
+ * {@code -Dloadtest.warmup}, {@code -Dloadtest.products} and {@code -Dloadtest.label}; reports are
+ * printed and written to {@code target/loadtest/<label>/}, so a before and an after run can be
+ * compared by label.
+ */
+@Tag("loadtest")
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductCatalogLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 64);
+    private static final Duration DURATION = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+    private static final int PRODUCTS = Integer.getInteger("loadtest.products", 1000);
+    private static final String LABEL = System.getProperty("loadtest.label", "current");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @Container
+    static final ElasticsearchContainer elasticsearch =
+            new ElasticsearchContainer("docker.elastic.co/elasticsearch/elasticsearch:8.11.0")
+                    .withEnv("xpack.security.enabled", "false")
+                    .withEnv("ES_JAVA_OPTS", "-Xms512m -Xmx512m");
+
+    @Container
+    static final KafkaContainer kafka = new KafkaContainer("apache/kafka:3.7.0");
+
+    @DynamicPropertySource
+    static void infrastructure(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+        registry.add("spring.elasticsearch.uris", () -> "http://" + elasticsearch.getHttpHostAddress());
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("logging.level.com.edstem.product_catalog", () -> "WARN");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<Long> productIds = new ArrayList<>();
+    private final LoadDriver driver = new LoadDriver();
+
+    @BeforeAll
+    void seedCatalog() throws Exception {
+        List<Future<Long>> created = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                int n = i;
+                created.add(executor.submit(() -> createProduct(n)));
+            }
+        }
+        for (Future<Long> id : created) {
+            productIds.add(id.get());
+        }
+        awaitIndexed();
+    }
+
+    @Test
+    void readHeavy() throws Exception {
+        Report report = driver.run("read-heavy", List.of(
+                new Operation("GET /api/products/{id}", 70, () -> get("/api/products/" + randomId())),
+                new Operation("GET /api/products?ids", 10, () -> get("/api/products?ids=" + randomIds(20))),
+                new Operation("GET /api/products", 5, () -> get("/api/products?size=20")),
+                new Operation("GET /api/search/products", 5, () -> get("/api/search/products?q=" + randomWord())),
+                new Operation("GET /api/search/products/query", 5,
+                        () -> get("/api/search/products/query?category=Electronics&inStock=true")),
+                new Operation("GET /api/search/suggest", 5, () -> get("/api/search/suggest?prefix=" + randomPrefix()))
+        ), CONCURRENCY, WARMUP, DURATION);
+
+        finish(report);
+    }
+
+    @Test
+    void writeBurst() throws Exception {
+        AtomicLong created = new AtomicLong(PRODUCTS);
+        Report report = driver.run("write-burst", List.of(
+                new Operation("POST /api/products", 30,
+                        () -> post("/api/products", productJson(created.incrementAndGet()))),
+                new Operation("PUT /api/products/{id}", 30, () -> {
+                    long id = randomId();
+                    return put("/api/products/" + id, productJson(id + ThreadLocalRandom.current().nextInt(100)));
+                }),
+                new Operation("POST /stock/reserve", 25, () -> post("/api/products/" + randomId() + "/stock/reserve?quantity=1", "")),
+                new Operation("GET /api/products/{id}", 15, () -> get("/api/products/" + randomId()))
+        ), CONCURRENCY, WARMUP, DURATION);
+
+        finish(report);
+    }
+
+    /**
+     * Reads while a producer floods {@code product-views} as fast as the broker accepts, to show
+     * what view aggregation costs the request path.
+     */
+    @Test
+    void viewFlood() throws Exception {
+        Map<String, Object> producerProps = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, CatalogAvroSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, 5);
+        KafkaTemplate<String, ProductViewEvent> views =
+                new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicLong sent = new AtomicLong();
+        Thread flood = Thread.ofVirtual().start(() -> {
+            while (flooding.get()) {
+                long id = randomId();
+                views.send("product-views", String.valueOf(id), ProductViewEvent.builder()
+                        .productId(id)
+                        .userId("load-" + ThreadLocalRandom.current().nextInt(10_000))
+                        .viewedAt(LocalDateTime.now())
+                        .source("loadtest")
+                        .build());
+                sent.incrementAndGet();
+            }
+        });
+
+        Report report;
+        try {
+            report = driver.run("view-flood", List.of(
+                    new Operation("GET /api/products/{id}", 80, () -> get("/api/products/" + randomId())),
+                    new Operation("GET /api/trending", 20, () -> get("/api/trending"))
+            ), CONCURRENCY, WARMUP, DURATION);
+        } finally {
+            flooding.set(false);
+            flood.join();
+            views.flush();
+            views.destroy();
+        }
+
+        finish(report.withCounter("product-views events/s",
+                (long) (sent.get() / (double) (WARMUP.plus(DURATION).toMillis()) * 1000)));
+    }
+
+    private void finish(Report report) {
+        LoadDriver.print(report);
+        LoadDriver.write(report, LABEL);
+        assertTrue(report.requests() > 0, "no requests completed");
+        assertTrue(report.errorRate() < 0.01, "error rate " + report.errorRate());
+    }
+
+    private Long createProduct(int n) throws Exception {
+        HttpResponse<String> response = httpClient.send(post("/api/products", productJson(n)),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    /**
+     * Products reach Elasticsearch through the outbox relay and Kafka; search scenarios are only
+     * meaningful once that pipeline has caught up.
+     */
+    private void awaitIndexed() throws Exception {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> response = httpClient.send(get("/api/search/products/query?size=1"),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                JsonNode page = objectMapper.readTree(response.body());
+                if (page.path("totalElements").asLong() >= PRODUCTS) {
+                    return;
+                }
+            }
+            Thread.sleep(500);
+        }
+        fail("Seeded products were not indexed within two minutes");
+    }
+
+    private static String productJson(long n) {
+        return """
+                {"name":"%s Product %d","description":"Load test product number %d",\
+                "category":"%s","price":%d.99,"stock":%d}"""
+                .formatted(WORDS[(int) (n % WORDS.length)], n, n, n % 2 == 0 ? "Electronics" : "Books",
+                        10 + n % 490, 1_000_000);
+    }
+
+    private static final String[] WORDS = {"Wireless", "Mechanical", "Portable", "Compact", "Ergonomic", "Premium"};
+
+    private long randomId() {
+        return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+    }
+
+    private String randomIds(int count) {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            ids.append(i == 0 ? "" : ",").append(randomId());
+        }
+        return ids.toString();
+    }
+
+    private static String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    private static String randomPrefix() {
+        String word = randomWord().toLowerCase();
+        return word.substring(0, 1 + ThreadLocalRandom.current().nextInt(3));
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path).POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest put(String path, String json) {
+        return request(path).PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(REQUEST_TIMEOUT);
+    }
+}
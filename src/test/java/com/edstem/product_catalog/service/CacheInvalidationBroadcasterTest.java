@@ -0,0 +1,100 @@
+package com.edstem.product_catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationBroadcasterTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private Cache<String, Object> nearCache;
+    private CacheInvalidationBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        nearCache = Caffeine.newBuilder().maximumSize(100).build();
+        broadcaster = new CacheInvalidationBroadcaster(stringRedisTemplate, nearCache, new SimpleMeterRegistry(), 3);
+    }
+
+    @Test
+    void flush_ShouldPublishPendingKeysInOneMessage() {
+        broadcaster.publish("product:1");
+        broadcaster.publish("product:2");
+
+        broadcaster.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq(CacheInvalidationBroadcaster.CHANNEL), payload.capture());
+        assertTrue(payload.getValue().startsWith(broadcaster.getInstanceId()));
+        assertTrue(payload.getValue().contains("product:1"));
+        assertTrue(payload.getValue().contains("product:2"));
+    }
+
+    @Test
+    void publish_WhenBatchIsFull_ShouldFlushImmediately() {
+        broadcaster.publish("product:1");
+        broadcaster.publish("product:2");
+        broadcaster.publish("product:3");
+
+        verify(stringRedisTemplate, times(1)).convertAndSend(eq(CacheInvalidationBroadcaster.CHANNEL), anyString());
+    }
+
+    @Test
+    void publish_WhenSameKeyRepeated_ShouldCoalesce() {
+        broadcaster.publish("product:1");
+        broadcaster.publish("product:1");
+
+        broadcaster.flush();
+
+        verify(stringRedisTemplate).convertAndSend(CacheInvalidationBroadcaster.CHANNEL,
+                broadcaster.getInstanceId() + "\nproduct:1");
+    }
+
+    @Test
+    void flush_WhenNothingPending_ShouldNotPublish() {
+        broadcaster.flush();
+
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void onMessage_FromOtherInstance_ShouldInvalidateNearCache() {
+        nearCache.put("product:1", "stale");
+        nearCache.put("product:2", "fresh");
+
+        broadcaster.onMessage(message("other-instance\nproduct:1"), null);
+
+        assertNull(nearCache.getIfPresent("product:1"));
+        assertEquals("fresh", nearCache.getIfPresent("product:2"));
+    }
+
+    @Test
+    void onMessage_FromSelf_ShouldBeIgnored() {
+        nearCache.put("product:1", "value");
+
+        broadcaster.onMessage(message(broadcaster.getInstanceId() + "\nproduct:1"), null);
+
+        assertEquals("value", nearCache.getIfPresent("product:1"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CacheInvalidationBroadcaster.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
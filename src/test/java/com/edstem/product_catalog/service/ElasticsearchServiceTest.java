@@ -1,7 +1,20 @@
 package com.edstem.product_catalog.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.edstem.product_catalog.contract.FacetBucket;
+import com.edstem.product_catalog.contract.FacetedSearchResult;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+import com.edstem.product_catalog.contract.ProductSearchPage;
 import com.edstem.product_catalog.document.ProductDocument;
-import com.edstem.product_catalog.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,10 +22,18 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.elasticsearch.core.*;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
 
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,19 +43,21 @@ import static org.mockito.Mockito.*;
 class ElasticsearchServiceTest {
 
     @Mock private ElasticsearchOperations elasticsearchOperations;
+    @Mock private ElasticsearchClient elasticsearchClient;
+    @Mock private ProductIndexManager indexManager;
+    @Mock private ElasticsearchConverter converter;
+    @Mock private SearchResultCache searchResultCache;
+    @Spy private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks private ElasticsearchService elasticsearchService;
 
     @Mock private SearchHits<ProductDocument> searchHits;
     @Mock private SearchHit<ProductDocument> searchHit;
 
-    private Product product;
     private ProductDocument doc;
 
     @BeforeEach
     void setUp() {
-        product = Product.builder().id(1L).name("Test Product").build();
-
         doc = ProductDocument.builder()
                 .id("1")
                 .name("Test Product")
@@ -42,36 +65,148 @@ class ElasticsearchServiceTest {
                 .price(BigDecimal.valueOf(99.99))
                 .stock(10)
                 .build();
+
+        ReflectionTestUtils.setField(elasticsearchService, "maxResults", 100);
+        ReflectionTestUtils.setField(elasticsearchService, "maxPageWindow", 10_000);
+        ReflectionTestUtils.setField(elasticsearchService, "exportBatchSize", 1000);
+        ReflectionTestUtils.setField(elasticsearchService, "pitKeepAlive", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(elasticsearchService, "categoryFacetSize", 20);
+        ReflectionTestUtils.setField(elasticsearchService, "priceFacetBoundaries", List.of(BigDecimal.valueOf(25), BigDecimal.valueOf(50)));
+    }
+
+    @Test
+    void bulkIndex_ShouldSendOneBulkRequest() {
+        IndexCoordinates index = IndexCoordinates.of("products");
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(index);
+
+        Set<String> failed = elasticsearchService.bulkIndex(List.of(doc, ProductDocument.builder().id("2").build()));
+
+        assertTrue(failed.isEmpty());
+        verify(elasticsearchOperations, times(1)).bulkIndex(argThat(queries -> queries.size() == 2), eq(index));
+        verify(searchResultCache).invalidate();
+        assertEquals(2.0, meterRegistry.get("es.bulk.size").tag("operation", "index").summary().totalAmount());
     }
 
     @Test
-    void indexProduct_ShouldCallSave() {
-        elasticsearchService.indexProduct(product);
-        verify(elasticsearchOperations).save(product);
+    void bulkIndex_IntoExplicitIndex_ShouldNotInvalidateSearchResults() {
+        elasticsearchService.bulkIndex(List.of(doc), IndexCoordinates.of("products-20240101000000"), true);
+
+        verifyNoInteractions(searchResultCache);
     }
 
     @Test
-    void updateProduct_ShouldConvertAndSaveDocument() {
-        try (MockedStatic<ProductDocument> mocked = mockStatic(ProductDocument.class)) {
-            mocked.when(() -> ProductDocument.fromProduct(product)).thenReturn(doc);
+    void bulkIndex_WhenSomeDocumentsFail_ShouldReturnFailedIds() {
+        IndexCoordinates index = IndexCoordinates.of("products");
+        BulkFailureException failure = mock(BulkFailureException.class);
+        doReturn(Map.of("1", "mapper_parsing_exception")).when(failure).getFailedDocuments();
+        when(elasticsearchOperations.bulkIndex(anyList(), eq(index))).thenThrow(failure);
 
-            elasticsearchService.updateProduct(product);
+        Set<String> failed = elasticsearchService.bulkIndex(List.of(doc), index);
 
-            verify(elasticsearchOperations).save(doc);
-        }
+        assertEquals(Set.of("1"), failed);
+    }
+
+    @Test
+    void bulkIndex_CreateOnly_ShouldIgnoreVersionConflicts() {
+        IndexCoordinates index = IndexCoordinates.of("products-20240101000000");
+        BulkFailureException failure = mock(BulkFailureException.class);
+        doReturn(Map.of(
+                "1", "[1]: version conflict, document already exists (current version [1])",
+                "2", "mapper_parsing_exception"))
+                .when(failure).getFailedDocuments();
+        when(elasticsearchOperations.bulkIndex(anyList(), eq(index))).thenThrow(failure);
+
+        Set<String> failed = elasticsearchService.bulkIndex(List.of(doc, ProductDocument.builder().id("2").build()), index, true);
+
+        assertEquals(Set.of("2"), failed);
+    }
+
+    @Test
+    void bulkIndex_WhenEmpty_ShouldNotCallElasticsearch() {
+        Set<String> failed = elasticsearchService.bulkIndex(List.of(), IndexCoordinates.of("products"));
+
+        assertTrue(failed.isEmpty());
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    void bulkWrite_ShouldSendIndexPartialUpdateAndDeleteInOneRequest() throws Exception {
+        ProductDocument other = ProductDocument.builder().id("2").name("Other").stock(3).build();
+        Document source = Document.create();
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(IndexCoordinates.of("products"));
+        when(elasticsearchOperations.getElasticsearchConverter()).thenReturn(converter);
+        when(converter.mapObject(any())).thenReturn(source);
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(bulkResponse());
+
+        Set<String> failed = elasticsearchService.bulkWrite(List.of(doc, other), Map.of("1", Set.of("stock")), List.of("3"));
+
+        assertTrue(failed.isEmpty());
+        ArgumentCaptor<BulkRequest> request = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient, times(1)).bulk(request.capture());
+        assertEquals("products", request.getValue().index());
+        List<BulkOperation> operations = request.getValue().operations();
+        assertEquals(3, operations.size());
+        assertTrue(operations.get(0).isUpdate());
+        Document partial = (Document) operations.get(0).update().action().doc();
+        assertEquals(10, partial.get("stock"));
+        assertFalse(partial.containsKey("name"));
+        assertSame(source, operations.get(0).update().action().upsert());
+        assertTrue(operations.get(1).isIndex());
+        assertEquals("2", operations.get(1).index().id());
+        assertTrue(operations.get(2).isDelete());
+        assertEquals("3", operations.get(2).delete().id());
+        verify(searchResultCache).invalidate();
     }
 
     @Test
-    void deleteProduct_ShouldCallElasticsearchDelete() {
-        elasticsearchService.deleteProduct("1");
-        verify(elasticsearchOperations).delete("1", ProductDocument.class);
+    void bulkWrite_WhenItemsAreRejected_ShouldReturnTheirIds() throws Exception {
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(IndexCoordinates.of("products"));
+        when(elasticsearchOperations.getElasticsearchConverter()).thenReturn(converter);
+        when(converter.mapObject(doc)).thenReturn(Document.create());
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(bulkResponse(
+                BulkResponseItem.of(i -> i.operationType(OperationType.Index).index("products").id("1").status(201)),
+                BulkResponseItem.of(i -> i.operationType(OperationType.Delete).index("products").id("3").status(429)
+                        .error(e -> e.type("es_rejected_execution_exception").reason("queue full")))));
+
+        Set<String> failed = elasticsearchService.bulkWrite(List.of(doc), Map.of(), List.of("3"));
+
+        assertEquals(Set.of("3"), failed);
     }
 
     @Test
-    void reindexAllProducts_ShouldCallSaveWithList() {
-        List<Product> products = List.of(product);
-        elasticsearchService.reindexAllProducts(products);
-        verify(elasticsearchOperations).save(products);
+    void bulkWrite_WhileBuildIndexExists_ShouldMirrorWritesAndDeletes() throws Exception {
+        when(indexManager.currentBuildIndex()).thenReturn("products-20240101000000");
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(IndexCoordinates.of("products"));
+        when(elasticsearchOperations.getElasticsearchConverter()).thenReturn(converter);
+        when(converter.mapObject(doc)).thenReturn(Document.create());
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(bulkResponse());
+
+        elasticsearchService.bulkWrite(List.of(doc), Map.of(), List.of("3"));
+
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient, times(2)).bulk(requests.capture());
+        assertEquals(List.of("products", "products-20240101000000"),
+                requests.getAllValues().stream().map(BulkRequest::index).toList());
+        assertEquals(requests.getAllValues().get(0).operations(), requests.getAllValues().get(1).operations());
+    }
+
+    @Test
+    void bulkWrite_WhenEmpty_ShouldNotCallElasticsearch() {
+        assertTrue(elasticsearchService.bulkWrite(List.of(), Map.of(), List.of()).isEmpty());
+        verifyNoInteractions(elasticsearchClient, elasticsearchOperations);
+    }
+
+    @Test
+    void incrementViewCounts_ShouldSendOneScriptedBulkUpdate() {
+        IndexCoordinates index = IndexCoordinates.of("products");
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(index);
+
+        Set<String> failed = elasticsearchService.incrementViewCounts(Map.of(1L, 5L, 2L, 1L));
+
+        assertTrue(failed.isEmpty());
+        verify(elasticsearchOperations).bulkUpdate(argThat(updates -> updates.size() == 2
+                && updates.stream().allMatch(update -> update.getScript() != null)), eq(index));
+        verifyNoInteractions(searchResultCache);
     }
 
     @Test
@@ -82,6 +217,79 @@ class ElasticsearchServiceTest {
 
         assertEquals(1, result.size());
         assertEquals("Test Product", result.get(0).getName());
+        assertEquals(1, meterRegistry.get("es.query").tag("type", "query").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void searchProducts_WithoutQuery_ShouldCapResults() {
+        stubSearchReturningHits(List.of(doc));
+
+        elasticsearchService.searchProducts(null);
+
+        verify(elasticsearchOperations).search(argThat((Query query) -> query.getMaxResults() == 100), eq(ProductDocument.class));
+    }
+
+    @Test
+    void searchAfter_FirstFullPage_ShouldOpenPointInTimeAndReturnCursor() {
+        IndexCoordinates index = IndexCoordinates.of("products");
+        when(elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class)).thenReturn(index);
+        when(elasticsearchOperations.openPointInTime(index, Duration.ofMinutes(1))).thenReturn("pit-1");
+        stubSearchReturningHits(List.of(doc));
+        when(searchHits.getPointInTimeId()).thenReturn("pit-2");
+        when(searchHits.getSearchHits().get(0).getSortValues()).thenReturn(List.of(1));
+
+        ProductSearchPage page = elasticsearchService.searchAfter(null, null, 1);
+
+        assertEquals(List.of(doc), page.getItems());
+        assertEquals(new SearchCursor("pit-2", List.of(1)), SearchCursor.decode(page.getNextCursor()));
+        verify(elasticsearchOperations).search(argThat((Query query) -> query.getPointInTime().id().equals("pit-1")
+                && query.getSearchAfter() == null
+                && query.getMaxResults() == 1), eq(ProductDocument.class));
+        verify(elasticsearchOperations, never()).closePointInTime(any());
+    }
+
+    @Test
+    void searchAfter_LastPage_ShouldResumeFromCursorAndClosePointInTime() {
+        String cursor = new SearchCursor("pit-2", List.of(1)).encode();
+        stubSearchReturningHits(List.of(doc));
+
+        ProductSearchPage page = elasticsearchService.searchAfter(null, cursor, 20);
+
+        assertNull(page.getNextCursor());
+        verify(elasticsearchOperations).search(argThat((Query query) -> query.getPointInTime().id().equals("pit-2")
+                && query.getSearchAfter().equals(List.of(1))), eq(ProductDocument.class));
+        verify(elasticsearchOperations).closePointInTime("pit-2");
+        verify(elasticsearchOperations, never()).openPointInTime(any(), any());
+    }
+
+    @Test
+    void searchAfter_WithInvalidCursor_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> elasticsearchService.searchAfter(null, "not-a-cursor", 20));
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    void searchProductsWithPagination_BeyondResultWindow_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> elasticsearchService.searchProductsWithPagination("query", PageRequest.of(1000, 10)));
+        verifyNoInteractions(elasticsearchOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportProducts_ShouldStreamEveryHitAndCloseScroll() {
+        SearchHitsIterator<ProductDocument> iterator = mock(SearchHitsIterator.class);
+        when(elasticsearchOperations.searchForStream((Query) any(), eq(ProductDocument.class))).thenReturn(iterator);
+        when(iterator.hasNext()).thenReturn(true, true, false);
+        when(iterator.next()).thenReturn(searchHit);
+        when(searchHit.getContent()).thenReturn(doc);
+        List<ProductDocument> exported = new ArrayList<>();
+
+        long count = elasticsearchService.exportProducts("query", exported::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of(doc, doc), exported);
+        verify(iterator).close();
     }
 
     @Test
@@ -129,6 +337,58 @@ class ElasticsearchServiceTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void searchProducts_WithCriteria_ShouldSendFilteredBoolQuery() {
+        when(elasticsearchOperations.search((Query) any(), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(searchHits.getSearchHits()).thenReturn(List.of(searchHit));
+        when(searchHits.getTotalHits()).thenReturn(1L);
+        when(searchHit.getContent()).thenReturn(doc);
+
+        Page<ProductDocument> result = elasticsearchService.searchProducts(
+                ProductSearchCriteria.builder().category("Electronics").inStock(true).build(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(doc), result.getContent());
+        verify(elasticsearchOperations).search(argThat((Query query) -> query instanceof NativeQuery nativeQuery
+                && nativeQuery.getQuery().bool().filter().size() == 2), eq(ProductDocument.class));
+    }
+
+    @Test
+    void facetedSearch_ShouldReturnHitsAndFacetsFromOneRequest() {
+        when(elasticsearchOperations.search((Query) any(), eq(ProductDocument.class)))
+                .thenReturn(searchHits);
+        when(searchHits.getSearchHits()).thenReturn(List.of(searchHit));
+        when(searchHits.getTotalHits()).thenReturn(4L);
+        when(searchHit.getContent()).thenReturn(doc);
+        doReturn(new ElasticsearchAggregations(Map.of(
+                "categories", Aggregate.of(a -> a.sterms(t -> t
+                        .sumOtherDocCount(0L)
+                        .docCountErrorUpperBound(0L)
+                        .buckets(b -> b.array(List.of(StringTermsBucket.of(bucket -> bucket.key("Electronics").docCount(4))))))),
+                "price_ranges", Aggregate.of(a -> a.range(r -> r
+                        .buckets(b -> b.array(List.of(
+                                RangeBucket.of(bucket -> bucket.to(25.0).docCount(1)),
+                                RangeBucket.of(bucket -> bucket.from(25.0).to(50.0).docCount(3)),
+                                RangeBucket.of(bucket -> bucket.from(50.0).docCount(0))))))),
+                "in_stock", Aggregate.of(a -> a.filter(f -> f.docCount(2))))))
+                .when(searchHits).getAggregations();
+
+        FacetedSearchResult result = elasticsearchService.facetedSearch(
+                ProductSearchCriteria.builder().text("mouse").build(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(doc), result.getItems());
+        assertEquals(4, result.getTotalHits());
+        assertEquals(List.of(new FacetBucket("Electronics", 4)), result.getCategories());
+        assertEquals(3, result.getPriceRanges().size());
+        assertNull(result.getPriceRanges().get(0).getFrom());
+        assertEquals(3, result.getPriceRanges().get(1).getCount());
+        assertEquals(2, result.getInStock());
+        verify(elasticsearchOperations).search(argThat((Query query) -> query instanceof NativeQuery nativeQuery
+                && nativeQuery.getAggregations().keySet().equals(Set.of("categories", "price_ranges", "in_stock"))
+                && nativeQuery.getAggregations().get("price_ranges").range().ranges().size() == 3),
+                eq(ProductDocument.class));
+    }
+
     @Test
     void searchProductsWithPagination_ShouldReturnPage() {
         when(elasticsearchOperations.search((Query) any(), eq(ProductDocument.class)))
@@ -165,4 +425,11 @@ class ElasticsearchServiceTest {
                 .thenReturn(searchHits);
         when(searchHits.getSearchHits()).thenReturn(searchHitList);
     }
+
+    private static BulkResponse bulkResponse(BulkResponseItem... items) {
+        return BulkResponse.of(b -> b
+                .took(1)
+                .errors(Arrays.stream(items).anyMatch(item -> item.error() != null))
+                .items(List.of(items)));
+    }
 }
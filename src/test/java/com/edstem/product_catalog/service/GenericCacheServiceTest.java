@@ -1,13 +1,21 @@
 package com.edstem.product_catalog.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,12 +29,23 @@ class GenericCacheServiceTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
-    @InjectMocks
+    @Mock
+    private CacheInvalidationBroadcaster invalidationBroadcaster;
+
+    private Cache<String, Object> nearCache;
+    private SimpleMeterRegistry meterRegistry;
     private GenericCacheService cacheService;
 
     private final String testKey = "test:key";
     private final String testValue = "test-value";
 
+    @BeforeEach
+    void setUp() {
+        nearCache = Caffeine.newBuilder().maximumSize(100).build();
+        meterRegistry = new SimpleMeterRegistry();
+        cacheService = new GenericCacheService(redisTemplate, nearCache, invalidationBroadcaster, meterRegistry);
+    }
+
     @Test
     void cacheObject_WithoutTimeout_ShouldCallRedisSet() {
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
@@ -94,4 +113,197 @@ class GenericCacheServiceTest {
         assertDoesNotThrow(() -> cacheService.evictCache(testKey));
         verify(redisTemplate).delete(testKey);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getCachedObject_WhenInNearCache_ShouldNotCallRedis() {
+        nearCache.put(testKey, testValue);
+
+        String result = cacheService.getCachedObject(testKey, String.class);
+
+        assertEquals(testValue, result);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void getCachedObject_WhenRedisHit_ShouldPopulateNearCache() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(testKey)).thenReturn(testValue);
+
+        cacheService.getCachedObject(testKey, String.class);
+        String result = cacheService.getCachedObject(testKey, String.class);
+
+        assertEquals(testValue, result);
+        assertEquals(testValue, nearCache.getIfPresent(testKey));
+        verify(valueOperations, times(1)).get(testKey);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("tier", "l2", "result", "hit").counter().count());
+    }
+
+    @Test
+    void getCachedObject_WhenRedisMiss_ShouldCountMiss() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(testKey)).thenReturn(null);
+
+        cacheService.getCachedObject(testKey, String.class);
+
+        assertNull(nearCache.getIfPresent(testKey));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("tier", "l2", "result", "miss").counter().count());
+    }
+
+    @Test
+    void cacheObject_ShouldWriteThroughToNearCache() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        cacheService.cacheObject(testKey, testValue, Duration.ofMinutes(5));
+
+        assertEquals(testValue, nearCache.getIfPresent(testKey));
+        verify(invalidationBroadcaster).publish(testKey);
+    }
+
+    @Test
+    void evictCache_ShouldInvalidateNearCacheAndBroadcast() {
+        nearCache.put(testKey, testValue);
+
+        cacheService.evictCache(testKey);
+
+        assertNull(nearCache.getIfPresent(testKey));
+        verify(redisTemplate).delete(testKey);
+        verify(invalidationBroadcaster).publish(testKey);
+    }
+
+    @Test
+    void getGeneration_WhenMissing_ShouldReturnZero() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("gen")).thenReturn(null);
+
+        assertEquals(0L, cacheService.getGeneration("gen"));
+    }
+
+    @Test
+    void getGeneration_ShouldNotServeFromNearCache() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("gen")).thenReturn(5L);
+        nearCache.put("gen", 3L);
+
+        assertEquals(5L, cacheService.getGeneration("gen"));
+        assertEquals(3L, nearCache.getIfPresent("gen"));
+    }
+
+    @Test
+    void getGeneration_WhenBroadcastIsMissed_ShouldStillSeeBump() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("gen")).thenReturn(1L);
+        when(valueOperations.increment("gen")).thenReturn(2L);
+        GenericCacheService otherReplica = new GenericCacheService(redisTemplate,
+                Caffeine.newBuilder().maximumSize(100).build(), mock(CacheInvalidationBroadcaster.class),
+                new SimpleMeterRegistry());
+        assertEquals(1L, otherReplica.getGeneration("gen"));
+
+        cacheService.incrementGeneration("gen");
+        when(valueOperations.get("gen")).thenReturn(2L);
+
+        assertEquals(2L, otherReplica.getGeneration("gen"));
+    }
+
+    @Test
+    void incrementGeneration_ShouldIncrementAndInvalidateNearCopies() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment("gen")).thenReturn(4L);
+        nearCache.put("gen", 3);
+
+        long generation = cacheService.incrementGeneration("gen");
+
+        assertEquals(4L, generation);
+        assertNull(nearCache.getIfPresent("gen"));
+        verify(invalidationBroadcaster).publish("gen");
+    }
+
+    @Test
+    void getCachedObjects_ShouldServeNearHitsAndMultiGetTheRest() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        nearCache.put("product:1", "one");
+        when(valueOperations.multiGet(List.of("product:2", "product:3"))).thenReturn(Arrays.asList("two", null));
+
+        Map<String, String> result = cacheService.getCachedObjects(List.of("product:1", "product:2", "product:3"), String.class);
+
+        assertEquals(Map.of("product:1", "one", "product:2", "two"), result);
+        assertEquals("two", nearCache.getIfPresent("product:2"));
+        verify(valueOperations, times(1)).multiGet(any());
+        verify(valueOperations, never()).get(any());
+    }
+
+    @Test
+    void getCachedObjects_WhenAllInNearCache_ShouldNotCallRedis() {
+        nearCache.put("product:1", "one");
+
+        Map<String, String> result = cacheService.getCachedObjects(List.of("product:1"), String.class);
+
+        assertEquals(Map.of("product:1", "one"), result);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void getCachedObjects_ShouldCountLookupsPerKeyPrefixAndTier() {
+        nearCache.put("product:1", "one");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("product:2", "product:3"))).thenReturn(Arrays.asList("two", null));
+
+        cacheService.getCachedObjects(List.of("product:1", "product:2", "product:3"), String.class);
+
+        assertEquals(1, lookups("product", "l1", "hit"));
+        assertEquals(1, lookups("product", "l2", "hit"));
+        assertEquals(1, lookups("product", "l2", "miss"));
+    }
+
+    @Test
+    void keyPrefix_ShouldStopAtIdLikeSegments() {
+        assertEquals("product", GenericCacheService.keyPrefix("product:42"));
+        assertEquals("products:page", GenericCacheService.keyPrefix("products:page:3:0:20"));
+        assertEquals("search:result", GenericCacheService.keyPrefix("search:result:7:query:abc"));
+        assertEquals("other", GenericCacheService.keyPrefix("42"));
+    }
+
+    @Test
+    void cacheObjects_ShouldPipelineWritesInOneCall() {
+        Map<String, String> values = Map.of("product:1", "one", "product:2", "two");
+
+        cacheService.cacheObjects(values, Duration.ofMinutes(5));
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        assertEquals("one", nearCache.getIfPresent("product:1"));
+        verify(invalidationBroadcaster).publish("product:1");
+        verify(invalidationBroadcaster).publish("product:2");
+    }
+
+    @Test
+    void populate_ShouldFillBothTiersWithoutBroadcasting() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        cacheService.populate(testKey, testValue, Duration.ofMinutes(5));
+
+        verify(valueOperations).set(testKey, testValue, Duration.ofMinutes(5));
+        assertEquals(testValue, nearCache.getIfPresent(testKey));
+        verifyNoInteractions(invalidationBroadcaster);
+    }
+
+    @Test
+    void populateAll_ShouldPipelineWritesWithoutBroadcasting() {
+        cacheService.populateAll(Map.of("product:1", "one"), Duration.ofMinutes(5));
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        assertEquals("one", nearCache.getIfPresent("product:1"));
+        verifyNoInteractions(invalidationBroadcaster);
+    }
+
+    @Test
+    void cacheObjects_WhenEmpty_ShouldNotCallRedis() {
+        cacheService.cacheObjects(Map.of(), Duration.ofMinutes(5));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private double lookups(String prefix, String tier, String result) {
+        return meterRegistry.get("cache.lookups")
+                .tag("prefix", prefix).tag("tier", tier).tag("result", result)
+                .counter().count();
+    }
+}
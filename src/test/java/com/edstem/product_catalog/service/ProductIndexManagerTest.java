@@ -0,0 +1,89 @@
+package com.edstem.product_catalog.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.edstem.product_catalog.document.ProductDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIndexManagerTest {
+
+    @Mock private ElasticsearchOperations elasticsearchOperations;
+    @Mock private ElasticsearchClient elasticsearchClient;
+    @Mock private GenericCacheService cacheService;
+    @Mock private SearchResultCache searchResultCache;
+    @Mock private IndexOperations entityIndexOps;
+    @Mock private IndexOperations buildIndexOps;
+
+    private ProductIndexManager indexManager;
+
+    @BeforeEach
+    void setUp() {
+        indexManager = new ProductIndexManager(elasticsearchOperations, elasticsearchClient, cacheService,
+                searchResultCache, "1", "1s", Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    void beginBuild_ShouldCreateTunedIndexAndPublishIt() throws Exception {
+        Document mapping = Document.create();
+        when(elasticsearchOperations.indexOps(ProductDocument.class)).thenReturn(entityIndexOps);
+        when(entityIndexOps.createMapping()).thenReturn(mapping);
+        when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenReturn(buildIndexOps);
+
+        IndexCoordinates buildIndex = indexManager.beginBuild();
+
+        assertTrue(buildIndex.getIndexName().startsWith(ProductIndexManager.ALIAS + "-"));
+        verify(buildIndexOps).create(Map.of(
+                "index.number_of_replicas", "0",
+                "index.refresh_interval", "-1"), mapping);
+        verify(cacheService).cacheObject(eq("search:build-index"), eq(buildIndex.getIndexName()), any(Duration.class));
+    }
+
+    @Test
+    void abortBuild_ShouldStopMirroringAndDropIndex() {
+        IndexCoordinates buildIndex = IndexCoordinates.of("products-20240101000000");
+        when(elasticsearchOperations.indexOps(buildIndex)).thenReturn(buildIndexOps);
+
+        indexManager.abortBuild(buildIndex);
+
+        verify(cacheService).evictCache("search:build-index");
+        verify(buildIndexOps).delete();
+    }
+
+    @Test
+    void currentBuildIndex_ShouldReadSharedMarker() {
+        when(cacheService.getCachedObject("search:build-index", String.class)).thenReturn("products-20240101000000");
+
+        assertEquals("products-20240101000000", indexManager.currentBuildIndex());
+    }
+
+    @Test
+    void currentBuildIndex_ShouldCacheNoBuildLocally() {
+        indexManager = new ProductIndexManager(elasticsearchOperations, elasticsearchClient, cacheService,
+                searchResultCache, "1", "1s", Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        assertNull(indexManager.currentBuildIndex());
+        assertNull(indexManager.currentBuildIndex());
+
+        verify(cacheService, times(1)).getCachedObject("search:build-index", String.class);
+    }
+
+    @Test
+    void constructor_WhenGraceShorterThanCacheTtl_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductIndexManager(elasticsearchOperations,
+                elasticsearchClient, cacheService, searchResultCache, "1", "1s", Duration.ZERO, Duration.ofSeconds(1)));
+    }
+}
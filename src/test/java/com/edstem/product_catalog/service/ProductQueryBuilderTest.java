@@ -0,0 +1,66 @@
+package com.edstem.product_catalog.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQueryBuilderTest {
+
+    @Test
+    void build_ShouldScoreOnlyTextAndFilterEverythingElse() {
+        BoolQuery bool = ProductQueryBuilder.build(ProductSearchCriteria.builder()
+                .text("wireless mouse")
+                .category("Electronics")
+                .minPrice(new BigDecimal("10.00"))
+                .maxPrice(new BigDecimal("50"))
+                .inStock(true)
+                .build()).bool();
+
+        assertEquals(1, bool.must().size());
+        assertEquals("wireless mouse", bool.must().get(0).multiMatch().query());
+        assertEquals(List.of("name", "description"), bool.must().get(0).multiMatch().fields());
+
+        List<Query> filters = bool.filter();
+        assertEquals(3, filters.size());
+        assertEquals("category", filters.get(0).term().field());
+        assertEquals("Electronics", filters.get(0).term().value().stringValue());
+        assertEquals("price", filters.get(1).range().number().field());
+        assertEquals(10.0, filters.get(1).range().number().gte());
+        assertEquals(50.0, filters.get(1).range().number().lte());
+        assertEquals("stock", filters.get(2).range().number().field());
+        assertEquals(0.0, filters.get(2).range().number().gt());
+    }
+
+    @Test
+    void build_WithOpenEndedPrice_ShouldOnlySetGivenBound() {
+        BoolQuery bool = ProductQueryBuilder.build(ProductSearchCriteria.builder()
+                .minPrice(BigDecimal.TEN)
+                .build()).bool();
+
+        assertEquals(10.0, bool.filter().get(0).range().number().gte());
+        assertNull(bool.filter().get(0).range().number().lte());
+        assertTrue(bool.must().isEmpty());
+    }
+
+    @Test
+    void build_WithoutCriteria_ShouldMatchEverything() {
+        BoolQuery bool = ProductQueryBuilder.build(new ProductSearchCriteria()).bool();
+
+        assertTrue(bool.must().isEmpty());
+        assertTrue(bool.filter().isEmpty());
+    }
+
+    @Test
+    void build_WhenMinPriceExceedsMax_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> ProductQueryBuilder.build(ProductSearchCriteria.builder()
+                .minPrice(BigDecimal.valueOf(100))
+                .maxPrice(BigDecimal.valueOf(50))
+                .build()));
+    }
+}
@@ -1,20 +1,24 @@
 package com.edstem.product_catalog.service;
 
-import com.edstem.product_catalog.contract.ProductDTO;
-import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.contract.ProductPage;
 import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.model.ProductOutbox;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
 import com.edstem.product_catalog.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,15 +28,13 @@ class ProductServiceTest {
 
     @Mock private ProductRepository productRepository;
     @Mock private GenericCacheService cacheService;
-    @Mock private KafkaTemplate<String, ProductDTO> kafkaTemplate;
-    @Mock private ElasticsearchService elasticsearchService;
-    @Mock private ElasticsearchOperations elasticsearchOperations;
+    @Mock private ProductOutboxRepository outboxRepository;
+    @Spy private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks private ProductService productService;
 
     private Product inputProduct;
     private Product savedProduct;
-    private ProductDocument productDoc;
 
     @BeforeEach
     void setUp() {
@@ -45,31 +47,20 @@ class ProductServiceTest {
                 .build();
 
         savedProduct = inputProduct.toBuilder().id(1L).build();
-
-        productDoc = ProductDocument.builder()
-                .id("1")
-                .name("Test Product")
-                .description("A sample product")
-                .category("Electronics")
-                .price(BigDecimal.valueOf(99.99))
-                .stock(10)
-                .build();
     }
 
     @Test
-    void createProduct_ShouldSaveProductAndIndexToElasticsearch() {
+    void createProduct_ShouldSaveProductAndRecordOutboxEvent() {
         when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
 
-        try (MockedStatic<ProductDocument> mocked = mockStatic(ProductDocument.class)) {
-            mocked.when(() -> ProductDocument.fromProduct(savedProduct)).thenReturn(productDoc);
+        Product result = productService.createProduct(inputProduct);
 
-            Product result = productService.createProduct(inputProduct);
-
-            assertNotNull(result);
-            assertEquals(1L, result.getId());
-            verify(productRepository).save(any(Product.class));
-            verify(elasticsearchOperations).save(productDoc);
-        }
+        assertNotNull(result);
+        assertEquals(1L, result.getId());
+        verify(productRepository).save(any(Product.class));
+        verify(outboxRepository).save(argThat(row ->
+                row.getProductId() == 1L && row.getEventType() == ProductOutbox.EventType.UPSERT));
+        verifyNoInteractions(cacheService);
     }
 
     @Test
@@ -93,7 +84,7 @@ class ProductServiceTest {
 
         assertNotNull(result);
         verify(productRepository).findById(1L);
-        verify(cacheService).cacheObject(eq("product:1"), eq(savedProduct), any(Duration.class));
+        verify(cacheService).populate(eq("product:1"), eq(savedProduct), any(Duration.class));
     }
 
     @Test
@@ -107,32 +98,205 @@ class ProductServiceTest {
     }
 
     @Test
-    void getAllProducts_WhenCached_ShouldReturnFromCache() {
-        List<Product> cached = List.of(savedProduct);
-        when(cacheService.getCachedObject("products:all", List.class)).thenReturn(cached);
+    void getProductById_WhenConcurrentMisses_ShouldQueryDbOnce() throws Exception {
+        when(cacheService.getCachedObject("product:1", Product.class)).thenReturn(null);
+        // A slow query keeps the first load in flight while the other misses arrive.
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return Optional.of(savedProduct);
+        });
+
+        int concurrentMisses = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrentMisses);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Product>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrentMisses; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return productService.getProductById(1L);
+                }));
+            }
+            start.countDown();
+
+            for (Future<Product> future : futures) {
+                assertEquals(savedProduct, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(cacheService, times(1)).populate(eq("product:1"), eq(savedProduct), any(Duration.class));
+        assertEquals(1, meterRegistry.get("product.db.load").tag("operation", "by_id").timer().count());
+    }
+
+    @Test
+    void getProductById_WhenCachedAndCloseToExpiry_ShouldReturnCachedAndRefreshInBackground() {
+        ReflectionTestUtils.setField(productService, "earlyRefreshEnabled", true);
+        ReflectionTestUtils.setField(productService, "earlyRefreshBeta", 1_000_000.0);
+        loadMillis().put("product:1", 1000L);
+        Product refreshed = savedProduct.toBuilder().stock(5).build();
+
+        when(cacheService.getCachedObject("product:1", Product.class)).thenReturn(savedProduct);
+        when(cacheService.getRemainingTtlMillis("product:1")).thenReturn(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(refreshed));
+
+        Product result = productService.getProductById(1L);
+
+        assertEquals(10, result.getStock());
+        verify(cacheService, timeout(5000)).populate(eq("product:1"), eq(refreshed), any(Duration.class));
+    }
+
+    @Test
+    void getProductById_WhenCachedWithoutMeasuredLoadTime_ShouldNotRefreshEarly() {
+        ReflectionTestUtils.setField(productService, "earlyRefreshEnabled", true);
+        ReflectionTestUtils.setField(productService, "earlyRefreshBeta", 1_000_000.0);
+        loadMillis().put("product:2", 1000L);
+
+        when(cacheService.getCachedObject("product:1", Product.class)).thenReturn(savedProduct);
+
+        productService.getProductById(1L);
+
+        verify(cacheService, never()).getRemainingTtlMillis(any());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void getProductById_AfterShutdown_ShouldSkipEarlyRefreshAndServeCachedValue() {
+        ReflectionTestUtils.setField(productService, "earlyRefreshEnabled", true);
+        ReflectionTestUtils.setField(productService, "earlyRefreshBeta", 1_000_000.0);
+        loadMillis().put("product:1", 1000L);
+        when(cacheService.getCachedObject("product:1", Product.class)).thenReturn(savedProduct);
+        when(cacheService.getRemainingTtlMillis("product:1")).thenReturn(1L);
+
+        productService.shutdown();
+
+        assertEquals(savedProduct, productService.getProductById(1L));
+        verify(productRepository, never()).findById(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, Long> loadMillis() {
+        return (Cache<String, Long>) ReflectionTestUtils.getField(productService, "loadMillis");
+    }
+
+    @Test
+    void getProductById_WhenCachedAndEarlyRefreshDisabled_ShouldNotCheckTtl() {
+        when(cacheService.getCachedObject("product:1", Product.class)).thenReturn(savedProduct);
+
+        productService.getProductById(1L);
+
+        verify(cacheService, never()).getRemainingTtlMillis(any());
+    }
+
+    @Test
+    void getProductsPage_WhenCached_ShouldReturnFromCache() {
+        ProductPage cached = ProductPage.builder().items(List.of(savedProduct)).build();
+        when(cacheService.getGeneration("products:page:generation")).thenReturn(3L);
+        when(cacheService.getCachedObject("products:page:3:0:20", ProductPage.class)).thenReturn(cached);
 
-        List<Product> result = productService.getAllProducts();
+        ProductPage result = productService.getProductsPage(null, 20);
 
-        assertEquals(1, result.size());
-        verify(productRepository, never()).findAll();
+        assertEquals(1, result.getItems().size());
+        verify(productRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void getProductsPage_AfterGenerationBump_ShouldNotServeOldPage() {
+        ProductPage cached = ProductPage.builder().items(List.of(savedProduct)).build();
+        when(cacheService.getGeneration("products:page:generation")).thenReturn(3L, 4L);
+        when(cacheService.getCachedObject("products:page:3:0:20", ProductPage.class)).thenReturn(cached);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of());
+
+        productService.getProductsPage(null, 20);
+        ProductPage result = productService.getProductsPage(null, 20);
+
+        assertTrue(result.getItems().isEmpty());
+        verify(cacheService).getCachedObject("products:page:4:0:20", ProductPage.class);
+        verify(productRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21));
+    }
+
+    @Test
+    void getProductsPage_WhenMoreRowsExist_ShouldReturnNextCursor() {
+        Product second = savedProduct.toBuilder().id(2L).build();
+        Product third = savedProduct.toBuilder().id(3L).build();
+        when(cacheService.getCachedObject("products:page:0:0:2", ProductPage.class)).thenReturn(null);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(List.of(savedProduct, second, third));
+
+        ProductPage result = productService.getProductsPage(null, 2);
+
+        assertEquals(List.of(savedProduct, second), result.getItems());
+        assertEquals(2L, ProductService.decodeCursor(result.getNextCursor()));
+        verify(cacheService).populate(eq("products:page:0:0:2"), eq(result), any(Duration.class));
+        verify(cacheService).populateAll(eq(Map.of("product:1", savedProduct, "product:2", second)), any(Duration.class));
     }
 
     @Test
-    void getAllProducts_WhenNotCached_ShouldFetchFromDbAndCache() {
-        List<Product> dbList = List.of(savedProduct);
-        when(cacheService.getCachedObject("products:all", List.class)).thenReturn(null);
-        when(productRepository.findAll()).thenReturn(dbList);
+    void getProductsPage_WhenLastPage_ShouldReturnNoCursor() {
+        String cursor = ProductService.encodeCursor(1L);
+        when(cacheService.getCachedObject("products:page:0:1:20", ProductPage.class)).thenReturn(null);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(21)))
+                .thenReturn(List.of(savedProduct.toBuilder().id(2L).build()));
 
-        List<Product> result = productService.getAllProducts();
+        ProductPage result = productService.getProductsPage(cursor, 20);
 
-        assertEquals(1, result.size());
-        verify(productRepository).findAll();
-        verify(cacheService).cacheObject(eq("products:all"), eq(dbList), any(Duration.class));
-        verify(cacheService).cacheObject(eq("product:1"), eq(savedProduct), any(Duration.class));
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    void updateProduct_WhenFound_ShouldUpdateAndCacheAndIndex() {
+    void getProductsPage_WhenSizeTooLarge_ShouldClampToMaximum() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(101))).thenReturn(List.of());
+
+        ProductPage result = productService.getProductsPage(null, 10_000);
+
+        assertTrue(result.getItems().isEmpty());
+    }
+
+    @Test
+    void getProductsPage_WhenCursorInvalid_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getProductsPage("not-a-cursor!", 20));
+    }
+
+    @Test
+    void getProductsByIds_ShouldLoadOnlyMissingIdsFromDb() {
+        Product second = savedProduct.toBuilder().id(2L).build();
+        when(cacheService.getCachedObjects(List.of("product:1", "product:2"), Product.class))
+                .thenReturn(Map.of("product:1", savedProduct));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(second));
+
+        List<Product> result = productService.getProductsByIds(List.of(1L, 2L, 1L));
+
+        assertEquals(List.of(savedProduct, second), result);
+        verify(productRepository).findAllById(List.of(2L));
+        verify(cacheService).populateAll(eq(Map.of("product:2", second)), any(Duration.class));
+    }
+
+    @Test
+    void getProductsByIds_WhenAllCached_ShouldNotHitDb() {
+        when(cacheService.getCachedObjects(List.of("product:1"), Product.class))
+                .thenReturn(Map.of("product:1", savedProduct));
+
+        List<Product> result = productService.getProductsByIds(List.of(1L));
+
+        assertEquals(List.of(savedProduct), result);
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getProductsByIds_WhenIdUnknown_ShouldSkipIt() {
+        when(cacheService.getCachedObjects(List.of("product:9"), Product.class)).thenReturn(Map.of());
+        when(productRepository.findAllById(List.of(9L))).thenReturn(List.of());
+
+        List<Product> result = productService.getProductsByIds(List.of(9L));
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void updateProduct_WhenFound_ShouldUpdateAndRecordOutboxEvent() {
         Product updated = savedProduct.toBuilder().name("Updated").build();
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(savedProduct));
@@ -141,9 +305,29 @@ class ProductServiceTest {
         Product result = productService.updateProduct(1L, updated);
 
         assertEquals("Updated", result.getName());
-        verify(cacheService).cacheObject(eq("product:1"), eq(updated), any(Duration.class));
-        verify(cacheService).evictCache("products:all");
-        verify(elasticsearchService).updateProduct(updated);
+        verify(outboxRepository).save(argThat(row ->
+                row.getProductId() == 1L
+                        && row.getEventType() == ProductOutbox.EventType.UPSERT
+                        && "name".equals(row.getChangedFields())));
+        verifyNoInteractions(cacheService);
+    }
+
+    @Test
+    void updateProduct_WhenNothingChanged_ShouldSkipWrite() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(savedProduct.toBuilder().build()));
+
+        Product result = productService.updateProduct(1L, savedProduct.toBuilder().price(new BigDecimal("99.990")).build());
+
+        assertEquals(1L, result.getId());
+        verify(productRepository, never()).save(any());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void changedFields_ShouldListOnlyDifferingFields() {
+        Product after = savedProduct.toBuilder().price(BigDecimal.valueOf(89.99)).stock(3).build();
+
+        assertEquals(List.of("price", "stock"), ProductService.changedFields(savedProduct, after));
     }
 
     @Test
@@ -162,9 +346,8 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository).deleteById(1L);
-        verify(cacheService).evictCache("product:1");
-        verify(cacheService).evictCache("products:all");
-        verify(elasticsearchService).deleteProduct("1");
+        verify(outboxRepository).save(argThat(row ->
+                row.getProductId() == 1L && row.getEventType() == ProductOutbox.EventType.DELETE));
     }
 
     @Test
@@ -174,36 +357,5 @@ class ProductServiceTest {
         productService.deleteProduct(1L);
 
         verify(productRepository, never()).deleteById(any());
-        verify(elasticsearchService, never()).deleteProduct(any());
-    }
-
-    @Test
-    void sendProductUpdate_ShouldSendToKafka() {
-        ProductDTO dto = ProductDTO.builder()
-                .name("Test Product")
-                .description("Desc")
-                .category("Electronics")
-                .price(BigDecimal.valueOf(99.99))
-                .stock(10)
-                .build();
-
-        productService.sendProductUpdate(dto);
-
-        verify(kafkaTemplate).send("product-topic", dto);
-    }
-
-    @Test
-    void reindexAllProducts_ShouldIndexAllDocs() {
-        List<Product> all = List.of(savedProduct);
-        when(productRepository.findAll()).thenReturn(all);
-
-        try (MockedStatic<ProductDocument> mocked = mockStatic(ProductDocument.class)) {
-            mocked.when(() -> ProductDocument.fromProduct(savedProduct)).thenReturn(productDoc);
-
-            productService.reindexAllProducts();
-
-            verify(productRepository).findAll();
-            verify(elasticsearchOperations).save(anyList());
-        }
-    }
-}
\ No newline at end of file
+        verify(outboxRepository, never()).save(any());
+    }}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.ReindexMode;
+import com.edstem.product_catalog.contract.ReindexStatus;
+import com.edstem.product_catalog.document.ProductDocument;
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReindexServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ElasticsearchService elasticsearchService;
+    @Mock private ProductIndexManager indexManager;
+
+    private ReindexService reindexService;
+
+    @BeforeEach
+    void setUp() {
+        reindexService = new ReindexService(productRepository, elasticsearchService, indexManager, 2, 1, ReindexMode.IN_PLACE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reindexService.shutdown();
+    }
+
+    @Test
+    void start_ShouldStreamChunksIntoBulkRequests() throws Exception {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(product(1), product(2)));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2))).thenReturn(List.of(product(3)));
+        when(elasticsearchService.bulkIndex(anyList())).thenReturn(Set.of());
+
+        reindexService.start();
+        ReindexStatus status = awaitFinished();
+
+        assertEquals(ReindexStatus.State.COMPLETED, status.getState());
+        assertEquals(3, status.getProcessed());
+        assertEquals(0, status.getFailed());
+        verify(elasticsearchService, times(2)).bulkIndex(anyList());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void start_ShouldKeepCreationDatesFromTheDatabase() throws Exception {
+        Product created = product(1).toBuilder()
+                .createdAt(Instant.parse("2023-01-15T10:00:00Z"))
+                .updatedAt(Instant.parse("2024-02-20T23:30:00Z"))
+                .build();
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(created));
+        when(elasticsearchService.bulkIndex(anyList())).thenReturn(Set.of());
+
+        reindexService.start();
+        awaitFinished();
+
+        ArgumentCaptor<List<ProductDocument>> docs = ArgumentCaptor.captor();
+        verify(elasticsearchService).bulkIndex(docs.capture());
+        assertEquals(LocalDate.of(2023, 1, 15), docs.getValue().get(0).getCreatedAt());
+        assertEquals(LocalDate.of(2024, 2, 20), docs.getValue().get(0).getUpdatedAt());
+    }
+
+    @Test
+    void start_WhenBulkItemsFail_ShouldCountFailures() throws Exception {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(product(1)));
+        when(elasticsearchService.bulkIndex(anyList())).thenReturn(Set.of("1"));
+
+        reindexService.start();
+        ReindexStatus status = awaitFinished();
+
+        assertEquals(ReindexStatus.State.COMPLETED, status.getState());
+        assertEquals(0, status.getProcessed());
+        assertEquals(1, status.getFailed());
+    }
+
+    @Test
+    void start_WhenAlreadyRunning_ShouldThrow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        reindexService.start();
+
+        assertThrows(IllegalStateException.class, () -> reindexService.start());
+        release.countDown();
+        assertEquals(ReindexStatus.State.COMPLETED, awaitFinished().getState());
+    }
+
+    @Test
+    void start_InAliasMode_ShouldBuildNewIndexAndSwapAlias() throws Exception {
+        IndexCoordinates buildIndex = IndexCoordinates.of("products-20240101000000");
+        when(indexManager.beginBuild()).thenReturn(buildIndex);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(product(1)));
+        when(elasticsearchService.bulkIndex(anyList(), eq(buildIndex), eq(true))).thenReturn(Set.of());
+        when(productRepository.findExistingIds(List.of(1L))).thenReturn(List.of(1L));
+
+        reindexService.start(ReindexMode.ALIAS);
+        ReindexStatus status = awaitFinished();
+
+        assertEquals(ReindexStatus.State.COMPLETED, status.getState());
+        assertEquals("products-20240101000000", status.getTargetIndex());
+        verify(indexManager).completeBuild(buildIndex);
+        verify(elasticsearchService, never()).bulkIndex(anyList());
+        verify(elasticsearchService, never()).deleteProducts(anyCollection(), any());
+    }
+
+    @Test
+    void start_InAliasMode_ShouldRemoveProductsDeletedDuringSnapshot() throws Exception {
+        IndexCoordinates buildIndex = IndexCoordinates.of("products-20240101000000");
+        when(indexManager.beginBuild()).thenReturn(buildIndex);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(product(1), product(2)));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2))).thenReturn(List.of());
+        when(elasticsearchService.bulkIndex(anyList(), eq(buildIndex), eq(true))).thenReturn(Set.of());
+        when(productRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        reindexService.start(ReindexMode.ALIAS);
+
+        assertEquals(ReindexStatus.State.COMPLETED, awaitFinished().getState());
+        verify(elasticsearchService).deleteProducts(List.of("2"), buildIndex);
+        verify(indexManager).completeBuild(buildIndex);
+    }
+
+    @Test
+    void start_InAliasMode_WhenDocumentsFail_ShouldKeepLiveIndex() throws Exception {
+        IndexCoordinates buildIndex = IndexCoordinates.of("products-20240101000000");
+        when(indexManager.beginBuild()).thenReturn(buildIndex);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(product(1)));
+        when(elasticsearchService.bulkIndex(anyList(), eq(buildIndex), eq(true))).thenReturn(Set.of("1"));
+
+        reindexService.start(ReindexMode.ALIAS);
+        ReindexStatus status = awaitFinished();
+
+        assertEquals(ReindexStatus.State.FAILED, status.getState());
+        verify(indexManager, never()).completeBuild(any());
+        verify(indexManager).abortBuild(buildIndex);
+    }
+
+    @Test
+    void status_WhenNeverStarted_ShouldBeIdle() {
+        assertEquals(ReindexStatus.State.IDLE, reindexService.status().getState());
+    }
+
+    private ReindexStatus awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        ReindexStatus status = reindexService.status();
+        while (status.getState() == ReindexStatus.State.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = reindexService.status();
+        }
+        return status;
+    }
+
+    private static Product product(long id) {
+        return Product.builder().id(id).name("Product" + id).build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.CachedSearchResult;
+import com.edstem.product_catalog.document.ProductDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchResultCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Mock private GenericCacheService cacheService;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ProductDocument> documents = List.of(ProductDocument.builder().id("1").build());
+    private SearchResultCache searchResultCache;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+        searchResultCache = new SearchResultCache(cacheService, meterRegistry, TTL, Duration.ofSeconds(1), clock);
+    }
+
+    @Test
+    void search_WithinSettleWindowOfNewGeneration_ShouldBypassCache() {
+        when(cacheService.getGeneration(SearchResultCache.GENERATION_KEY)).thenReturn(7L);
+
+        searchResultCache.search("query", () -> documents, "phone");
+
+        verify(cacheService, never()).populate(anyString(), any(), any(Duration.class));
+        assertEquals(1, meterRegistry.get("search.requests").tag("cache", "bypass").timer().count());
+    }
+
+    @Test
+    void search_AfterSettleWindow_ShouldCacheUnderCurrentGeneration() {
+        when(cacheService.getGeneration(SearchResultCache.GENERATION_KEY)).thenReturn(7L);
+        searchResultCache.search("query", () -> documents, "phone");
+        now.addAndGet(1_000);
+
+        searchResultCache.search("query", () -> documents, "phone");
+
+        verify(cacheService).populate(startsWith("search:result:7:query:"),
+                eq(new CachedSearchResult(documents, 1)), eq(TTL));
+        assertEquals(1, meterRegistry.get("search.requests").tag("type", "query").tag("cache", "miss").timer().count());
+    }
+
+    @Test
+    void search_OnHit_ShouldNotCallLoader() {
+        when(cacheService.getCachedObject(anyString(), eq(CachedSearchResult.class)))
+                .thenReturn(new CachedSearchResult(documents, 1));
+
+        List<ProductDocument> result = searchResultCache.search("query", () -> fail("should not load"), "phone");
+
+        assertEquals(documents, result);
+        assertEquals(1, meterRegistry.get("search.requests").tag("cache", "hit").timer().count());
+    }
+
+    @Test
+    void search_WhenCacheUnavailable_ShouldFallBackToLoader() {
+        when(cacheService.getGeneration(SearchResultCache.GENERATION_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        List<ProductDocument> result = searchResultCache.search("query", () -> documents, "phone");
+
+        assertEquals(documents, result);
+        verify(cacheService, never()).getCachedObject(anyString(), any());
+    }
+
+    @Test
+    void invalidate_WhenCacheUnavailable_ShouldNotThrow() {
+        when(cacheService.incrementGeneration(SearchResultCache.GENERATION_KEY))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> searchResultCache.invalidate());
+    }
+
+    @Test
+    void fingerprint_ShouldIgnoreInsignificantDifferences() {
+        assertEquals(SearchResultCache.fingerprint("  red   phone ", new BigDecimal("10.00")),
+                SearchResultCache.fingerprint("red phone", BigDecimal.TEN));
+        assertEquals(SearchResultCache.fingerprint((Object) null), SearchResultCache.fingerprint(""));
+        assertNotEquals(SearchResultCache.fingerprint("phone", null), SearchResultCache.fingerprint(null, "phone"));
+    }
+}
@@ -1,18 +1,25 @@
 package com.edstem.product_catalog.service;
 
+import com.edstem.product_catalog.contract.CachedSearchResult;
+import com.edstem.product_catalog.contract.FacetedSearchResult;
+import com.edstem.product_catalog.contract.ProductSearchCriteria;
+import com.edstem.product_catalog.contract.ReindexMode;
+import com.edstem.product_catalog.contract.ReindexStatus;
 import com.edstem.product_catalog.document.ProductDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -26,15 +33,21 @@ class SearchServiceTest {
     private ElasticsearchService elasticsearchService;
 
     @Mock
-    private ProductService productService;
+    private ReindexService reindexService;
+
+    @Mock
+    private GenericCacheService cacheService;
 
-    @InjectMocks
     private SearchService searchService;
 
     private ProductDocument testProduct;
 
     @BeforeEach
     void setUp() {
+        SearchResultCache searchResultCache = new SearchResultCache(cacheService, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), Duration.ZERO);
+        searchService = new SearchService(elasticsearchService, reindexService, searchResultCache);
+
         testProduct = ProductDocument.builder()
                 .id("1")
                 .name("Test Product")
@@ -123,11 +136,86 @@ class SearchServiceTest {
     }
 
     @Test
-    void reindexAll_ShouldInvokeProductService() {
-        doNothing().when(productService).reindexAllProducts();
+    void search_WithCriteria_ShouldDelegateToStructuredSearch() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductSearchCriteria criteria = ProductSearchCriteria.builder().category("Test Category").build();
+        when(elasticsearchService.searchProducts(criteria, pageable))
+                .thenReturn(new PageImpl<>(List.of(testProduct), pageable, 1));
+
+        Page<ProductDocument> result = searchService.search(criteria, pageable);
+
+        assertEquals(List.of(testProduct), result.getContent());
+        verify(cacheService).populate(startsWith("search:result:0:structured:"), any(), any(Duration.class));
+    }
+
+    @Test
+    void facetedSearch_WhenCached_ShouldSkipElasticsearch() {
+        ReflectionTestUtils.setField(searchService, "facetCacheEnabled", true);
+        FacetedSearchResult cached = FacetedSearchResult.builder().items(List.of(testProduct)).totalHits(1).build();
+        when(cacheService.getCachedObject(startsWith("search:result:0:faceted:"), eq(FacetedSearchResult.class)))
+                .thenReturn(cached);
+
+        FacetedSearchResult result = searchService.facetedSearch(new ProductSearchCriteria(), PageRequest.of(0, 10));
+
+        assertSame(cached, result);
+        verifyNoInteractions(elasticsearchService);
+    }
+
+    @Test
+    void facetedSearch_WhenCacheDisabled_ShouldAlwaysQueryElasticsearch() {
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        FacetedSearchResult fresh = FacetedSearchResult.builder().totalHits(0).build();
+        when(elasticsearchService.facetedSearch(criteria, pageable)).thenReturn(fresh);
+
+        assertSame(fresh, searchService.facetedSearch(criteria, pageable));
+        verifyNoInteractions(cacheService);
+    }
+
+    @Test
+    void searchProducts_WhenResultIsCached_ShouldSkipElasticsearch() {
+        CachedSearchResult cached = new CachedSearchResult(List.of(testProduct), 1);
+        when(cacheService.getCachedObject(startsWith("search:result:0:query:"), eq(CachedSearchResult.class)))
+                .thenReturn(cached);
+
+        List<ProductDocument> result = searchService.searchProducts("test");
+
+        assertEquals(List.of(testProduct), result);
+        verifyNoInteractions(elasticsearchService);
+    }
+
+    @Test
+    void paginatedSearch_OnMiss_ShouldCacheContentAndTotal() {
+        Pageable pageable = PageRequest.of(2, 10);
+        when(elasticsearchService.searchProductsWithPagination("test", pageable))
+                .thenReturn(new PageImpl<>(List.of(testProduct), pageable, 21));
+
+        Page<ProductDocument> result = searchService.paginatedSearch("test", pageable);
+
+        assertEquals(21, result.getTotalElements());
+        verify(cacheService).populate(startsWith("search:result:0:paginated:"),
+                eq(new CachedSearchResult(List.of(testProduct), 21)), eq(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void reindexAll_ShouldStartReindexJob() {
+        ReindexStatus running = ReindexStatus.builder().state(ReindexStatus.State.RUNNING).build();
+        when(reindexService.start()).thenReturn(running);
+
+        ReindexStatus result = searchService.reindexAll();
+
+        assertEquals(ReindexStatus.State.RUNNING, result.getState());
+        verify(reindexService).start();
+    }
+
+    @Test
+    void reindexAll_WithMode_ShouldPassModeThrough() {
+        ReindexStatus running = ReindexStatus.builder().state(ReindexStatus.State.RUNNING).mode(ReindexMode.IN_PLACE).build();
+        when(reindexService.start(ReindexMode.IN_PLACE)).thenReturn(running);
 
-        searchService.reindexAll();
+        ReindexStatus result = searchService.reindexAll(ReindexMode.IN_PLACE);
 
-        verify(productService).reindexAllProducts();
+        assertEquals(ReindexMode.IN_PLACE, result.getMode());
+        verify(reindexService, never()).start();
     }
 }
\ No newline at end of file
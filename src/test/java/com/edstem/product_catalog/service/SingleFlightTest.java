@@ -0,0 +1,87 @@
+package com.edstem.product_catalog.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CONCURRENT_MISSES = 50;
+
+    @Test
+    void execute_WithoutCoalescing_EveryConcurrentMissHitsTheLoader() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        List<String> results = runConcurrently(() -> slowLoad(loads));
+
+        assertEquals(CONCURRENT_MISSES, results.size());
+        assertEquals(CONCURRENT_MISSES, loads.get());
+    }
+
+    @Test
+    void execute_WithCoalescing_ConcurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        List<String> results = runConcurrently(() -> singleFlight.execute("product:1", () -> slowLoad(loads)));
+
+        assertEquals(CONCURRENT_MISSES, results.size());
+        assertTrue(results.stream().allMatch("loaded"::equals));
+        assertEquals(1, loads.get());
+        assertFalse(singleFlight.isInFlight("product:1"));
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldPropagateAndAllowRetry() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("product:1", () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertEquals("ok", singleFlight.execute("product:1", () -> "ok"));
+    }
+
+    private static String slowLoad(AtomicInteger loads) {
+        loads.incrementAndGet();
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "loaded";
+    }
+
+    private static List<String> runConcurrently(Supplier<String> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_MISSES);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_MISSES; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.get();
+                }));
+            }
+            start.countDown();
+
+            List<String> results = new ArrayList<>();
+            for (Future<String> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.StockUpdateResult;
+import com.edstem.product_catalog.model.Product;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
+import com.edstem.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the conditional stock UPDATE from many threads against a real database. Runs outside
+ * a test transaction so every call commits and the threads actually contend on the row lock.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired private ProductRepository productRepository;
+    @Autowired private ProductOutboxRepository outboxRepository;
+
+    private StockService stockService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        stockService = new StockService(productRepository, outboxRepository, new SimpleMeterRegistry());
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        outboxRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void reserve_UnderContention_ShouldNeverOversell() throws Exception {
+        Long id = saveProduct(100);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(25, task -> {
+            StockUpdateResult result = stockService.reserve(id, 1);
+            (result == StockUpdateResult.APPLIED ? reserved : rejected).incrementAndGet();
+        });
+
+        assertEquals(100, reserved.get());
+        assertEquals(THREADS * 25 - 100, rejected.get());
+        assertEquals(0, stockOf(id));
+        assertEquals(100, outboxRepository.count());
+    }
+
+    @Test
+    void reserve_WithMultiUnitQuantities_ShouldStopBeforeGoingNegative() throws Exception {
+        Long id = saveProduct(10);
+        AtomicInteger reserved = new AtomicInteger();
+
+        runConcurrently(2, task -> {
+            if (stockService.reserve(id, 3) == StockUpdateResult.APPLIED) {
+                reserved.incrementAndGet();
+            }
+        });
+
+        assertEquals(3, reserved.get());
+        assertEquals(1, stockOf(id));
+    }
+
+    @Test
+    void adjust_MixedWithReservations_ShouldLoseNoUpdates() throws Exception {
+        Long id = saveProduct(50);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger restocked = new AtomicInteger();
+
+        runConcurrently(20, task -> {
+            if (task % 2 == 0) {
+                stockService.adjust(id, 2);
+                restocked.addAndGet(2);
+            } else if (stockService.reserve(id, 1) == StockUpdateResult.APPLIED) {
+                reserved.incrementAndGet();
+            }
+        });
+
+        assertEquals(THREADS / 2 * 20 * 2, restocked.get());
+        assertEquals(50 + restocked.get() - reserved.get(), stockOf(id));
+        assertTrue(stockOf(id) >= 0);
+    }
+
+    @Test
+    void adjust_NearIntegerLimit_ShouldRejectOverflowWithoutChangingStock() {
+        Long id = saveProduct(Integer.MAX_VALUE - 1);
+
+        assertEquals(StockUpdateResult.STOCK_LIMIT_EXCEEDED, stockService.adjust(id, 2));
+        assertEquals(StockUpdateResult.APPLIED, stockService.adjust(id, 1));
+        assertEquals(StockUpdateResult.STOCK_LIMIT_EXCEEDED, stockService.adjust(id, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, stockOf(id));
+        assertEquals(StockUpdateResult.INSUFFICIENT_STOCK, stockService.adjust(id, Integer.MIN_VALUE));
+    }
+
+    /** Runs {@code action} on every worker; the action gets its worker's index, not a thread id. */
+    private void runConcurrently(int iterationsPerThread, IntConsumer action) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int task = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterationsPerThread; i++) {
+                    action.accept(task);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private Long saveProduct(int stock) {
+        return productRepository.save(Product.builder()
+                .name("Limited edition")
+                .category("Collectibles")
+                .price(BigDecimal.TEN)
+                .stock(stock)
+                .build()).getId();
+    }
+
+    private int stockOf(Long id) {
+        return productRepository.findById(id).orElseThrow().getStock();
+    }
+}
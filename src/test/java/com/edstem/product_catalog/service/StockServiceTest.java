@@ -0,0 +1,78 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.StockUpdateResult;
+import com.edstem.product_catalog.model.ProductOutbox;
+import com.edstem.product_catalog.repository.ProductOutboxRepository;
+import com.edstem.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private ProductOutboxRepository outboxRepository;
+
+    private StockService stockService;
+
+    @BeforeEach
+    void setUp() {
+        stockService = new StockService(productRepository, outboxRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reserve_WhenStockSuffices_ShouldDecrementConditionallyAndRecordStockChange() {
+        when(productRepository.adjustStock(1L, -3)).thenReturn(1);
+
+        assertEquals(StockUpdateResult.APPLIED, stockService.reserve(1L, 3));
+
+        ArgumentCaptor<ProductOutbox> row = ArgumentCaptor.forClass(ProductOutbox.class);
+        verify(outboxRepository).save(row.capture());
+        assertEquals(1L, row.getValue().getProductId());
+        assertEquals(ProductOutbox.EventType.UPSERT, row.getValue().getEventType());
+        assertEquals("stock", row.getValue().getChangedFields());
+        assertNotNull(row.getValue().getCreatedAt());
+        verify(productRepository, never()).existsById(any());
+    }
+
+    @Test
+    void reserve_WhenStockIsShort_ShouldReportInsufficientStock() {
+        when(productRepository.adjustStock(1L, -3)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        assertEquals(StockUpdateResult.INSUFFICIENT_STOCK, stockService.reserve(1L, 3));
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void adjust_WhenProductMissing_ShouldReportNotFound() {
+        when(productRepository.adjustStock(9L, 5)).thenReturn(0);
+        when(productRepository.existsById(9L)).thenReturn(false);
+
+        assertEquals(StockUpdateResult.NOT_FOUND, stockService.adjust(9L, 5));
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void adjust_WhenStockWouldOverflow_ShouldReportLimitExceeded() {
+        when(productRepository.adjustStock(1L, 5)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        assertEquals(StockUpdateResult.STOCK_LIMIT_EXCEEDED, stockService.adjust(1L, 5));
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void reserve_WhenQuantityNotPositive_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> stockService.reserve(1L, 0));
+        verifyNoInteractions(productRepository, outboxRepository);
+    }
+}
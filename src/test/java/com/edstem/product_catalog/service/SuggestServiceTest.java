@@ -0,0 +1,65 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.document.ProductDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+
+    @Mock private ElasticsearchService elasticsearchService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        suggestService = new SuggestService(elasticsearchService, meterRegistry, 5, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void suggest_ShouldServeRepeatedPrefixFromCache() {
+        when(elasticsearchService.suggestNames("wire", 5)).thenReturn(List.of("Wireless Mouse", "Wired Keyboard"));
+
+        assertEquals(List.of("Wireless Mouse", "Wired Keyboard"), suggestService.suggest("wire", 10));
+        assertEquals(List.of("Wireless Mouse", "Wired Keyboard"), suggestService.suggest("  WIRE ", 10));
+
+        verify(elasticsearchService, times(1)).suggestNames(anyString(), anyInt());
+        assertEquals(1, meterRegistry.get("search.requests").tag("type", "suggest").tag("cache", "hit").timer().count());
+    }
+
+    @Test
+    void suggest_ShouldTruncateCachedEntryToRequestedSize() {
+        when(elasticsearchService.suggestNames("mo", 5)).thenReturn(List.of("Mouse", "Monitor", "Mouse Pad"));
+
+        assertEquals(List.of("Mouse", "Monitor"), suggestService.suggest("mo", 2));
+        assertEquals(List.of("Mouse", "Monitor", "Mouse Pad"), suggestService.suggest("mo", 3));
+        verify(elasticsearchService, times(1)).suggestNames("mo", 5);
+    }
+
+    @Test
+    void suggest_WithBlankPrefix_ShouldNotQueryElasticsearch() {
+        assertTrue(suggestService.suggest("   ", 5).isEmpty());
+        verifyNoInteractions(elasticsearchService);
+    }
+
+    @Test
+    void suggestFor_ShouldIndexEveryWordSuffixWeightedByViews() {
+        Completion completion = ProductDocument.suggestFor("Logitech  Wireless Mouse", 42L);
+
+        assertArrayEquals(new String[]{"Logitech Wireless Mouse", "Wireless Mouse", "Mouse"}, completion.getInput());
+        assertEquals(42, completion.getWeight());
+        assertNull(ProductDocument.suggestFor(" ", 1L));
+    }
+}
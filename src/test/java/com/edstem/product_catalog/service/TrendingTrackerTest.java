@@ -0,0 +1,150 @@
+package com.edstem.product_catalog.service;
+
+import com.edstem.product_catalog.contract.TrendingProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private TrendingTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new TrendingTracker(clockAt(now), 3, 100, 4, 2048);
+    }
+
+    private static Clock clockAt(AtomicLong now) {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        };
+    }
+
+    @Test
+    void trending_ShouldRankProductsByViewsInWindow() {
+        recordViews(1L, 5);
+        recordViews(2L, 10);
+        recordViews(3L, 1);
+
+        tracker.refresh();
+
+        List<TrendingProduct> top = tracker.trending(5, 2);
+        assertEquals(List.of(2L, 1L), top.stream().map(TrendingProduct::getProductId).toList());
+        assertEquals(10, top.get(0).getViews());
+    }
+
+    @Test
+    void trending_ShouldDropViewsOlderThanWindow() {
+        recordViews(1L, 10);
+        advanceMinutes(6);
+        recordViews(2L, 2);
+
+        tracker.refresh();
+
+        assertEquals(List.of(2L), tracker.trending(5, 10).stream().map(TrendingProduct::getProductId).toList());
+        assertEquals(List.of(1L, 2L), tracker.trending(15, 10).stream().map(TrendingProduct::getProductId).toList());
+    }
+
+    @Test
+    void trending_ShouldSumViewsAcrossBuckets() {
+        recordViews(1L, 3);
+        advanceMinutes(1);
+        recordViews(1L, 4);
+
+        tracker.refresh();
+
+        assertEquals(7, tracker.trending(60, 1).get(0).getViews());
+    }
+
+    @Test
+    void trending_ShouldKeepOnlyTopK() {
+        for (long id = 1; id <= 20; id++) {
+            recordViews(id, (int) id);
+        }
+
+        tracker.refresh();
+
+        assertEquals(List.of(20L, 19L, 18L),
+                tracker.trending(5, 10).stream().map(TrendingProduct::getProductId).toList());
+    }
+
+    @Test
+    void trending_WhenRingWrapsAround_ShouldForgetOldMinutes() {
+        recordViews(1L, 10);
+        advanceMinutes(60);
+        recordViews(2L, 1);
+
+        tracker.refresh();
+
+        assertEquals(List.of(2L), tracker.trending(60, 10).stream().map(TrendingProduct::getProductId).toList());
+    }
+
+    @Test
+    void record_WhenCandidatesAreFull_ShouldOnlyAdmitHeavyHitters() {
+        TrendingTracker small = new TrendingTracker(clockAt(now), 3, 2, 4, 2048);
+        for (long id = 1; id <= 4; id++) {
+            for (int i = 0; i < id * 5; i++) {
+                small.record(id);
+            }
+        }
+
+        for (long id = 100; id < 200; id++) {
+            small.record(id);
+        }
+
+        assertTrue(small.candidateCount() <= 4, "candidates: " + small.candidateCount());
+        small.refresh();
+        assertEquals(List.of(4L, 3L), small.trending(5, 2).stream().map(TrendingProduct::getProductId).toList());
+    }
+
+    @Test
+    void record_WithViewTimestamps_ShouldBucketReplayedViewsByMinute() {
+        long base = now.get();
+        tracker.record(1L, base - 10 * 60_000L);
+        tracker.record(2L, base);
+        tracker.record(3L, base - 61 * 60_000L);
+
+        tracker.refresh();
+
+        assertEquals(List.of(2L), tracker.trending(5, 10).stream().map(TrendingProduct::getProductId).toList());
+        assertEquals(List.of(1L, 2L), tracker.trending(15, 10).stream().map(TrendingProduct::getProductId).toList());
+        assertEquals(2, tracker.trending(60, 10).size());
+    }
+
+    @Test
+    void trending_WhenWindowUnsupported_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> tracker.trending(7, 10));
+    }
+
+    private void recordViews(long productId, int views) {
+        for (int i = 0; i < views; i++) {
+            tracker.record(productId);
+        }
+    }
+
+    private void advanceMinutes(int minutes) {
+        now.addAndGet(minutes * 60_000L);
+    }
+}
@@ -0,0 +1,215 @@
+package com.edstem.product_catalog.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewCountAggregatorTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ElasticsearchService elasticsearchService;
+
+    private ViewCountAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new ViewCountAggregator(jdbcTemplate, elasticsearchService, new SimpleMeterRegistry(), 1_000_000, 100_000);
+    }
+
+    @Test
+    void flush_ShouldWriteOneDeltaPerProduct() {
+        when(elasticsearchService.incrementViewCounts(any())).thenReturn(Set.of());
+        aggregator.record(1L);
+        aggregator.record(1L);
+        aggregator.record(2L);
+
+        aggregator.flush();
+
+        assertEquals(Map.of(1L, 2L, 2L, 1L), capturedDatabaseDeltas());
+        verify(elasticsearchService).incrementViewCounts(Map.of(1L, 2L, 2L, 1L));
+        assertEquals(0, aggregator.pendingViews());
+    }
+
+    @Test
+    void flush_WhenNothingRecorded_ShouldNotWrite() {
+        aggregator.flush();
+
+        verifyNoInteractions(jdbcTemplate, elasticsearchService);
+    }
+
+    @Test
+    void flush_WhenDatabaseFails_ShouldKeepDeltasForNextFlush() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[]{1});
+        when(elasticsearchService.incrementViewCounts(any())).thenReturn(Set.of());
+        aggregator.record(1L);
+
+        aggregator.flush();
+        verifyNoInteractions(elasticsearchService);
+        assertEquals(1, aggregator.pendingViews());
+
+        aggregator.flush();
+        verify(elasticsearchService).incrementViewCounts(Map.of(1L, 1L));
+    }
+
+    @Test
+    void flush_WhenSearchPartiallyFails_ShouldRetryOnlySearchOnNextFlush() {
+        when(elasticsearchService.incrementViewCounts(any()))
+                .thenReturn(Set.of("2"))
+                .thenReturn(Set.of());
+        aggregator.record(1L);
+        aggregator.record(2L);
+        aggregator.record(2L);
+
+        aggregator.flush();
+        assertEquals(1, aggregator.pendingSearchRetries());
+
+        aggregator.record(3L);
+        aggregator.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.captor();
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        assertEquals(Map.of(3L, 1L), toDeltas(rows.getAllValues().get(1)));
+        verify(elasticsearchService).incrementViewCounts(Map.of(1L, 1L, 2L, 2L));
+        verify(elasticsearchService).incrementViewCounts(Map.of(2L, 2L, 3L, 1L));
+        assertEquals(0, aggregator.pendingSearchRetries());
+    }
+
+    @Test
+    void flush_WhenSearchIsDown_ShouldRetrySearchWithoutRewritingDatabase() {
+        when(elasticsearchService.incrementViewCounts(any()))
+                .thenThrow(new IllegalStateException("down"))
+                .thenReturn(Set.of());
+        aggregator.record(1L);
+
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(elasticsearchService, times(2)).incrementViewCounts(Map.of(1L, 1L));
+        assertEquals(0, aggregator.pendingSearchRetries());
+    }
+
+    @Test
+    void flush_WhenSearchKeepsRejectingProduct_ShouldEventuallyDropDelta() {
+        when(elasticsearchService.incrementViewCounts(any())).thenReturn(Set.of("1"));
+        aggregator.record(1L);
+
+        for (int i = 0; i < ViewCountAggregator.MAX_SEARCH_ATTEMPTS + 2; i++) {
+            aggregator.flush();
+        }
+
+        verify(elasticsearchService, times(ViewCountAggregator.MAX_SEARCH_ATTEMPTS)).incrementViewCounts(Map.of(1L, 1L));
+        assertEquals(0, aggregator.pendingSearchRetries());
+    }
+
+    @Test
+    void flush_WhenTrackingTooManyProducts_ShouldRetireIdleCountersWithoutLosingViews() {
+        ViewCountAggregator bounded = new ViewCountAggregator(jdbcTemplate, elasticsearchService,
+                new SimpleMeterRegistry(), 1_000_000, 0);
+        when(elasticsearchService.incrementViewCounts(any())).thenReturn(Set.of());
+        bounded.record(1L);
+        bounded.flush();
+        bounded.flush();
+
+        bounded.record(1L);
+        bounded.flush();
+
+        verify(elasticsearchService, times(2)).incrementViewCounts(Map.of(1L, 1L));
+    }
+
+    @Test
+    void record_UnderConcurrentLoad_ShouldNotLoseViews() throws Exception {
+        Map<Long, Long> flushed = new HashMap<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> args = invocation.getArgument(1);
+            synchronized (flushed) {
+                args.forEach(row -> flushed.merge((Long) row[1], (Long) row[0], Long::sum));
+            }
+            return new int[args.size()];
+        });
+        when(elasticsearchService.incrementViewCounts(any())).thenReturn(Set.of());
+
+        int threads = 8;
+        int viewsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < viewsPerThread; i++) {
+                    aggregator.record((long) (i % 100));
+                }
+                done.countDown();
+            });
+        }
+        executor.execute(() -> {
+            while (done.getCount() > 0) {
+                aggregator.flush();
+            }
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        aggregator.flush();
+        aggregator.flush();
+
+        long total = flushed.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals((long) threads * viewsPerThread, total);
+    }
+
+    @Test
+    void record_WhenMaxPendingReached_ShouldFlushOffTheCallingThread() {
+        ViewCountAggregator eager = new ViewCountAggregator(jdbcTemplate, elasticsearchService,
+                new SimpleMeterRegistry(), 3, 100_000);
+        Thread caller = Thread.currentThread();
+        List<Thread> flushThreads = new CopyOnWriteArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            flushThreads.add(Thread.currentThread());
+            return new int[0];
+        });
+        when(elasticsearchService.incrementViewCounts(any())).thenReturn(Set.of());
+
+        eager.record(1L);
+        eager.record(1L);
+        eager.record(2L);
+
+        verify(elasticsearchService, timeout(5000)).incrementViewCounts(Map.of(1L, 2L, 2L, 1L));
+        assertEquals(1, flushThreads.size());
+        assertNotSame(caller, flushThreads.get(0));
+        eager.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> capturedDatabaseDeltas() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        return toDeltas(captor.getValue());
+    }
+
+    private static Map<Long, Long> toDeltas(List<Object[]> rows) {
+        Map<Long, Long> deltas = new HashMap<>();
+        rows.forEach(row -> deltas.put((Long) row[1], (Long) row[0]));
+        return deltas;
+    }
+}